@@ -0,0 +1,208 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+import static org.sagebionetworks.bridge.sdk.integration.LoadTestHelper.intListProperty;
+import static org.sagebionetworks.bridge.sdk.integration.LoadTestHelper.intProperty;
+import static org.sagebionetworks.bridge.util.IntegTestUtils.TEST_APP_ID;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.sagebionetworks.bridge.rest.ApiClientProvider;
+import org.sagebionetworks.bridge.rest.RestUtils;
+import org.sagebionetworks.bridge.rest.api.AppConfigsApi;
+import org.sagebionetworks.bridge.rest.api.ForAdminsApi;
+import org.sagebionetworks.bridge.rest.api.PublicApi;
+import org.sagebionetworks.bridge.rest.exceptions.EntityNotFoundException;
+import org.sagebionetworks.bridge.rest.model.AppConfig;
+import org.sagebionetworks.bridge.rest.model.AppConfigElement;
+import org.sagebionetworks.bridge.rest.model.ConfigReference;
+import org.sagebionetworks.bridge.rest.model.Criteria;
+import org.sagebionetworks.bridge.rest.model.GuidVersionHolder;
+import org.sagebionetworks.bridge.rest.model.Role;
+import org.sagebionetworks.bridge.user.TestUserHelper;
+import org.sagebionetworks.bridge.user.TestUserHelper.TestUser;
+
+/**
+ * Seeds many app configs with overlapping criteria, then has concurrent clients with varied User-Agent and
+ * Accept-Language headers resolve their app config through the public API, the way our apps do on every
+ * launch. Latency is reported per client shape, and throughput per concurrency level. With
+ * -Dloadtest.standIn=true this runs against the stand-in server, which also reports its own time per request.
+ */
+@Category(LoadTest.class)
+public class AppConfigLoadTest {
+    private static final Logger LOG = LoggerFactory.getLogger(AppConfigLoadTest.class);
+
+    private static final int CONFIG_COUNT = intProperty("appConfigCount", 50);
+    private static final int ELEMENT_COUNT = intProperty("appConfigElementCount", 20);
+    private static final int ELEMENTS_PER_CONFIG = intProperty("elementsPerAppConfig", 5);
+    private static final int REQUESTS_PER_LEVEL = intProperty("requestsPerLevel", 200);
+    private static final List<Integer> CONCURRENCY_LEVELS = intListProperty("concurrency", "1,4,16");
+    private static final List<String> LANGUAGES = ImmutableList.of("en", "fr", "de", "es", "zh", "ja");
+    private static final int VERSION_STEP = 10;
+    private static final int VERSION_RANGE = 50;
+
+    private TestUser developer;
+    private ForAdminsApi adminApi;
+    private AppConfigsApi adminConfigsApi;
+    private AppConfigsApi configsApi;
+    private String hostUrl;
+    private String prefix;
+    private List<String> elementIds = new ArrayList<>();
+    private List<String> configGuids = new ArrayList<>();
+    private LatencyRecorder recorder = new LatencyRecorder();
+
+    @Before
+    public void before() throws Exception {
+        prefix = Tests.randomIdentifier(AppConfigLoadTest.class);
+        if (LoadTestHelper.isStandInMode()) {
+            StandInServer server = StandInServer.get();
+            adminApi = LoadTestHelper.getClient(ForAdminsApi.class, server.getAdminSignIn());
+            adminConfigsApi = LoadTestHelper.getClient(AppConfigsApi.class, server.getAdminSignIn());
+            configsApi = adminConfigsApi;
+            hostUrl = server.getBaseUrl();
+            return;
+        }
+        TestUser admin = TestUserHelper.getSignedInAdmin();
+        adminApi = admin.getClient(ForAdminsApi.class);
+        adminConfigsApi = admin.getClient(AppConfigsApi.class);
+        developer = TestUserHelper.createAndSignInUser(AppConfigLoadTest.class, false, Role.DEVELOPER);
+        configsApi = developer.getClient(AppConfigsApi.class);
+        hostUrl = developer.getClientManager().getHostUrl();
+    }
+
+    @After
+    public void after() throws Exception {
+        for (String guid : configGuids) {
+            adminApi.deleteAppConfig(guid, true).execute();
+        }
+        for (String id : elementIds) {
+            adminConfigsApi.deleteAllAppConfigElementRevisions(id, true).execute();
+        }
+        if (developer != null) {
+            developer.signOutAndDeleteUser();
+        }
+    }
+
+    @Test
+    public void resolveAppConfigUnderLoad() throws Exception {
+        for (int i = 0; i < ELEMENT_COUNT; i++) {
+            String id = prefix + "-element-" + i;
+            AppConfigElement element = new AppConfigElement().id(id).revision(1L)
+                    .data(Tests.getSimpleSchedulePlan());
+            configsApi.createAppConfigElement(element).execute();
+            elementIds.add(id);
+        }
+        for (int i = 0; i < CONFIG_COUNT; i++) {
+            AppConfig config = new AppConfig().label(prefix + "-" + i).criteria(criteriaFor(i));
+            List<ConfigReference> refs = new ArrayList<>();
+            for (int j = 0; j < Math.min(ELEMENTS_PER_CONFIG, elementIds.size()); j++) {
+                String id = elementIds.get((i + j) % elementIds.size());
+                refs.add(new ConfigReference().id(id).revision(1L));
+            }
+            config.setConfigReferences(refs);
+            GuidVersionHolder keys = configsApi.createAppConfig(config).execute().body();
+            configGuids.add(keys.getGuid());
+        }
+        LOG.info("Seeded {} app configs referencing {} config elements", CONFIG_COUNT, ELEMENT_COUNT);
+
+        List<ClientShape> shapes = createClientShapes();
+
+        double ceiling = 0d;
+        for (int concurrency : CONCURRENCY_LEVELS) {
+            recorder.reset();
+            if (LoadTestHelper.isStandInMode()) {
+                StandInServer.get().getServerRecorder().reset();
+            }
+            long elapsed = LoadTestHelper.runConcurrently(concurrency, REQUESTS_PER_LEVEL, (index) -> {
+                ClientShape shape = shapes.get(index % shapes.size());
+                return recorder.time(shape.name, () -> resolve(shape.api));
+            });
+            recorder.log(LOG, "App config resolution, concurrency=" + concurrency, elapsed);
+            if (LoadTestHelper.isStandInMode()) {
+                StandInServer.get().getServerRecorder().log(LOG, "  stand-in server time", elapsed);
+            }
+
+            int successes = 0;
+            for (ClientShape shape : shapes) {
+                successes += recorder.getSummary(shape.name).getCount();
+            }
+            double throughput = successes / (elapsed / 1000000000d);
+            LOG.info("  total throughput={}/s", String.format("%.1f", throughput));
+            ceiling = Math.max(ceiling, throughput);
+        }
+        LOG.info("App config resolution throughput ceiling: {}/s over {} configs", String.format("%.1f", ceiling),
+                CONFIG_COUNT);
+    }
+
+    /**
+     * Criteria rotate through three shapes: an app version range (Android or iOS), a language plus an app
+     * version range, and a data group. Version ranges overlap so most clients match several configs, which
+     * forces the server to choose between them. Data groups cannot match an unauthenticated caller, but the
+     * server must still evaluate them.
+     */
+    private Criteria criteriaFor(int index) {
+        int min = (index / 3) * VERSION_STEP;
+        String osName = (index % 2 == 0) ? "Android" : "iPhone OS";
+        Criteria criteria = new Criteria();
+        switch(index % 3) {
+        case 0:
+            criteria.setMinAppVersions(ImmutableMap.of(osName, min));
+            criteria.setMaxAppVersions(ImmutableMap.of(osName, min + VERSION_RANGE));
+            break;
+        case 1:
+            criteria.setLanguage(LANGUAGES.get(index % LANGUAGES.size()));
+            criteria.setMinAppVersions(ImmutableMap.of(osName, min));
+            criteria.setMaxAppVersions(ImmutableMap.of(osName, min + VERSION_RANGE));
+            break;
+        default:
+            criteria.setAllOfGroups(ImmutableList.of("sdk-int-1"));
+            criteria.setNoneOfGroups(ImmutableList.of("sdk-int-2"));
+            break;
+        }
+        return criteria;
+    }
+
+    private List<ClientShape> createClientShapes() {
+        int maxVersion = (CONFIG_COUNT / 3) * VERSION_STEP + VERSION_RANGE;
+        List<ClientShape> shapes = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            int version = (maxVersion / 5) * i + 1;
+            shapes.add(new ClientShape("appVersion/Android", "Android", version, "en"));
+            shapes.add(new ClientShape("appVersion/iOS", "iPhone OS", version, "en"));
+            shapes.add(new ClientShape("language/" + LANGUAGES.get(i), "Android", version,
+                    LANGUAGES.get(i) + ", en;q=0.5"));
+        }
+        shapes.add(new ClientShape("unmatched", "Android", Integer.MAX_VALUE - 1, "en"));
+        return shapes;
+    }
+
+    /** A missing config is still a completed resolution (nothing matched), so it is not an error. */
+    private AppConfig resolve(PublicApi api) throws Exception {
+        try {
+            return api.getConfigForApp(TEST_APP_ID).execute().body();
+        } catch(EntityNotFoundException e) {
+            return null;
+        }
+    }
+
+    private class ClientShape {
+        private final String name;
+        private final PublicApi api;
+
+        ClientShape(String name, String osName, int appVersion, String acceptLanguage) {
+            this.name = name;
+            String userAgent = RestUtils.getUserAgent(Tests.getClientInfoWithVersion(osName, appVersion));
+            ApiClientProvider provider = new ApiClientProvider(hostUrl, userAgent, acceptLanguage, TEST_APP_ID);
+            this.api = provider.getClient(PublicApi.class);
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import retrofit2.Call;
+import retrofit2.Response;
+
+/**
+ * Runs retrofit calls concurrently, so a test that needs several independent reads waits for the slowest of them
+ * rather than the sum. Each call is made with execute() on a shared pool of daemon threads and becomes a
+ * CompletableFuture that can be composed with the usual thenCombine/allOf, and awaited with await() or
+ * awaitAll(), which rethrow the call's own exception (e.g. an EntityNotFoundException from the rest-client)
+ * rather than a wrapper. Because the call runs through execute(), the exceptions the rest-client's interceptors
+ * throw for error responses reach the future the same way they reach a caller of execute(); enqueue() would lose
+ * them. A response that comes back unsuccessful without an exception fails the future with an IOException
+ * giving its status.
+ *
+ * At most maxConcurrency calls of one AsyncCalls are in flight; the rest wait for a permit on the pool, so the
+ * caller never blocks. Every call is cancelled and fails with a TimeoutException if it hasn't finished
+ * timeoutMillis after it was submitted, including the time spent waiting for a permit. (The tree targets Java 8,
+ * so the timeout is scheduled here rather than with CompletableFuture.orTimeout.)
+ */
+public class AsyncCalls {
+    public static final int DEFAULT_MAX_CONCURRENCY = 5;
+    public static final long DEFAULT_TIMEOUT_MILLIS = 30000L;
+
+    private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+    private static final ExecutorService EXECUTOR = Executors.newCachedThreadPool((runnable) -> {
+        Thread thread = new Thread(runnable, "AsyncCalls-" + THREAD_COUNT.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+    private static final ScheduledExecutorService TIMER = Executors.newSingleThreadScheduledExecutor((runnable) -> {
+        Thread thread = new Thread(runnable, "AsyncCalls-timer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Semaphore permits;
+    private final long timeoutMillis;
+
+    public AsyncCalls() {
+        this(DEFAULT_MAX_CONCURRENCY, DEFAULT_TIMEOUT_MILLIS);
+    }
+
+    public AsyncCalls(int maxConcurrency, long timeoutMillis) {
+        if (maxConcurrency < 1) {
+            throw new IllegalArgumentException("maxConcurrency must be at least 1");
+        }
+        this.permits = new Semaphore(maxConcurrency);
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    /** Submit the call, completing with its response, or exceptionally if it fails or times out. */
+    public <T> CompletableFuture<Response<T>> enqueue(Call<T> call) {
+        CompletableFuture<Response<T>> future = CompletableFuture.supplyAsync(() -> execute(call), EXECUTOR);
+        ScheduledFuture<?> timeout = TIMER.schedule(() -> {
+            if (future.completeExceptionally(new TimeoutException(
+                    call.request().method() + " " + call.request().url() + " took over " + timeoutMillis + " ms"))) {
+                call.cancel();
+            }
+        }, timeoutMillis, TimeUnit.MILLISECONDS);
+        future.whenComplete((response, e) -> timeout.cancel(false));
+        return future;
+    }
+
+    /** Submit the call, completing with the body of its response. */
+    public <T> CompletableFuture<T> body(Call<T> call) {
+        return enqueue(call).thenApply(Response::body);
+    }
+
+    private <T> Response<T> execute(Call<T> call) {
+        try {
+            permits.acquire();
+        } catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CompletionException(e);
+        }
+        try {
+            // The call may have timed out while it waited for a permit.
+            if (call.isCanceled()) {
+                throw new CompletionException(new IOException("Canceled"));
+            }
+            Response<T> response = call.execute();
+            if (!response.isSuccessful()) {
+                throw new CompletionException(new IOException(call.request().method() + " "
+                        + call.request().url() + " returned HTTP " + response.code()));
+            }
+            return response;
+        } catch(IOException e) {
+            throw new CompletionException(e);
+        } finally {
+            permits.release();
+        }
+    }
+
+    /** Wait for the future, rethrowing the exception it failed with. */
+    public static <T> T await(CompletableFuture<T> future) throws IOException, TimeoutException {
+        try {
+            return future.get();
+        } catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        } catch(ExecutionException e) {
+            throw rethrow(e.getCause());
+        }
+    }
+
+    /** Wait for all of the futures, returning their results in order, or rethrowing the first failure. */
+    public static <T> List<T> awaitAll(List<CompletableFuture<T>> futures) throws IOException, TimeoutException {
+        awaitAll(futures.toArray(new CompletableFuture<?>[0]));
+        List<T> results = new ArrayList<>(futures.size());
+        for (CompletableFuture<T> future : futures) {
+            results.add(await(future));
+        }
+        return results;
+    }
+
+    /** Wait for all of the futures, whatever their types, rethrowing the first failure in order. */
+    public static void awaitAll(CompletableFuture<?>... futures) throws IOException, TimeoutException {
+        try {
+            CompletableFuture.allOf(futures).join();
+        } catch(CompletionException e) {
+            // Fall through to report the first failure in order, not the first to happen.
+        }
+        for (CompletableFuture<?> future : futures) {
+            await(future);
+        }
+    }
+
+    private static IOException rethrow(Throwable t) throws TimeoutException {
+        if (t instanceof CompletionException && t.getCause() != null) {
+            t = t.getCause();
+        }
+        if (t instanceof RuntimeException) {
+            throw (RuntimeException)t;
+        }
+        if (t instanceof Error) {
+            throw (Error)t;
+        }
+        if (t instanceof TimeoutException) {
+            throw (TimeoutException)t;
+        }
+        if (t instanceof IOException) {
+            return (IOException)t;
+        }
+        return new IOException(t);
+    }
+}
@@ -0,0 +1,116 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+import static org.sagebionetworks.bridge.sdk.integration.CRCTest.TEST_EMAIL;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.joda.time.DateTime;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import retrofit2.Call;
+
+import org.sagebionetworks.bridge.rest.api.AppsApi;
+import org.sagebionetworks.bridge.rest.api.ForResearchersApi;
+import org.sagebionetworks.bridge.rest.api.ForSuperadminsApi;
+import org.sagebionetworks.bridge.rest.api.ParticipantsApi;
+import org.sagebionetworks.bridge.rest.model.AccountSummarySearch;
+import org.sagebionetworks.bridge.user.TestUserHelper;
+import org.sagebionetworks.bridge.user.TestUserHelper.TestUser;
+
+/**
+ * Sequential execute() against AsyncCalls for the independent reads of the three flows that use AsyncCalls:
+ *
+ * <ul>
+ *   <li>crc: CRCTest.beforeMethod, the account search for the CRC test account and the app (2 reads);</li>
+ *   <li>healthDataEx3: HealthDataEx3Test, the Ex3 record lists by user, app and study (3 reads);</li>
+ *   <li>studyFiltering: StudyFilteringTest, two researchers' account searches, then a participant and their
+ *   activity events (4 reads).</li>
+ * </ul>
+ *
+ * The reads are made by the admin account against the configured server, on the admin's own records where the
+ * test uses its fixtures, so no fixtures are created. Sequential time should be the sum of the reads' latencies
+ * and async time close to the slowest one. Run with -Dbenchmark=AsyncFanOut.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+public class AsyncFanOutBenchmark {
+    private static final String DUMMY_STUDY_ID = "dummy-study";
+
+    @Param({"crc", "healthDataEx3", "studyFiltering"})
+    public String flow;
+
+    private List<Supplier<Call<?>>> reads;
+    private AsyncCalls async;
+
+    @Setup
+    public void setup() throws Exception {
+        TestUser admin = TestUserHelper.getSignedInAdmin();
+        String userId = admin.getUserId();
+        reads = new ArrayList<>();
+        switch (flow) {
+            case "crc":
+                ParticipantsApi participantsApi = admin.getClient(ParticipantsApi.class);
+                AppsApi appsApi = admin.getClient(AppsApi.class);
+                reads.add(() -> participantsApi.searchAccountSummaries(new AccountSummarySearch()
+                        .emailFilter(TEST_EMAIL)));
+                reads.add(() -> appsApi.getUsersApp());
+                break;
+            case "healthDataEx3":
+                ForSuperadminsApi superadminsApi = admin.getClient(ForSuperadminsApi.class);
+                DateTime end = DateTime.now();
+                DateTime start = end.minusDays(1);
+                reads.add(() -> superadminsApi.getRecordsEx3ForUser(userId, start, end, null, null));
+                reads.add(() -> superadminsApi.getRecordsEx3ForCurrentApp(start, end, null, null));
+                reads.add(() -> superadminsApi.getRecordsEx3ForStudy(DUMMY_STUDY_ID, start, end, null, null));
+                break;
+            case "studyFiltering":
+                ForResearchersApi researchersApi = admin.getClient(ForResearchersApi.class);
+                reads.add(() -> researchersApi.searchAccountSummaries(new AccountSummarySearch()));
+                reads.add(() -> researchersApi.searchAccountSummaries(new AccountSummarySearch()));
+                reads.add(() -> researchersApi.getParticipantById(userId, false));
+                reads.add(() -> researchersApi.getActivityEventsForParticipant(userId));
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown flow " + flow);
+        }
+        async = new AsyncCalls(reads.size(), AsyncCalls.DEFAULT_TIMEOUT_MILLIS);
+
+        // Make sure every read works before measuring.
+        sequential();
+    }
+
+    @Benchmark
+    public int sequential() throws Exception {
+        for (Supplier<Call<?>> read : reads) {
+            read.get().execute();
+        }
+        return reads.size();
+    }
+
+    @Benchmark
+    public int async() throws Exception {
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[reads.size()];
+        for (int i = 0; i < futures.length; i++) {
+            futures[i] = async.enqueue(reads.get(i).get());
+        }
+        AsyncCalls.awaitAll(futures);
+        return futures.length;
+    }
+}
@@ -0,0 +1,144 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+import static org.sagebionetworks.bridge.sdk.integration.LoadTestHelper.intListProperty;
+import static org.sagebionetworks.bridge.sdk.integration.LoadTestHelper.intProperty;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.sagebionetworks.bridge.rest.api.ActivitiesApi;
+import org.sagebionetworks.bridge.rest.api.CompoundActivityDefinitionsApi;
+import org.sagebionetworks.bridge.rest.api.SchedulesV1Api;
+import org.sagebionetworks.bridge.rest.model.Activity;
+import org.sagebionetworks.bridge.rest.model.CompoundActivity;
+import org.sagebionetworks.bridge.rest.model.CompoundActivityDefinition;
+import org.sagebionetworks.bridge.rest.model.Role;
+import org.sagebionetworks.bridge.rest.model.Schedule;
+import org.sagebionetworks.bridge.rest.model.SchedulePlan;
+import org.sagebionetworks.bridge.rest.model.ScheduleType;
+import org.sagebionetworks.bridge.rest.model.SchemaReference;
+import org.sagebionetworks.bridge.rest.model.SimpleScheduleStrategy;
+import org.sagebionetworks.bridge.rest.model.SurveyReference;
+import org.sagebionetworks.bridge.rest.model.TaskReference;
+import org.sagebionetworks.bridge.user.TestUserHelper;
+import org.sagebionetworks.bridge.user.TestUserHelper.TestUser;
+
+/**
+ * Measures the cost of auto-resolving activity references on the scheduling path (see
+ * ScheduledActivityAutoResolutionTest) as the number of referenced entities grows. For each entry in
+ * loadtest.entityCounts, that many schemas, published surveys and compound activity definitions (each
+ * referencing one schema and one survey) exist, with a schedule plan per entity whose activities reference all
+ * three, so every getScheduledActivities call resolves three activities per entity. Each step measures:
+ *
+ * cold, each participant's first request after new entities were seeded; warm, repeated requests; and
+ * afterPublish, each participant's first request after a new version of every survey was published, which
+ * changes what the published survey references resolve to and so defeats whatever the server has cached.
+ * Each phase is logged on its own, so its throughput is measured against its own elapsed time.
+ */
+@Category(LoadTest.class)
+public class AutoResolutionLoadTest {
+    private static final Logger LOG = LoggerFactory.getLogger(AutoResolutionLoadTest.class);
+
+    private static final List<Integer> ENTITY_COUNTS = intListProperty("entityCounts", "5,20,50");
+    private static final int PARTICIPANTS = intProperty("participants", 20);
+    private static final int REQUESTS_PER_STEP = intProperty("requestsPerStep", 100);
+    private static final int THREADS = intProperty("threads", 8);
+    private static final String TASK_ID = "task:AAA";
+
+    private TestUser developer;
+    private String prefix;
+    private ReferencedEntities entities;
+    private final List<String> compoundTaskIds = new ArrayList<>();
+    private final List<String> planGuids = new ArrayList<>();
+    private final List<TestUser> participants = new ArrayList<>();
+    private final LatencyRecorder recorder = new LatencyRecorder();
+
+    @Before
+    public void before() throws Exception {
+        developer = TestUserHelper.createAndSignInUser(AutoResolutionLoadTest.class, false, Role.DEVELOPER);
+        prefix = Tests.randomIdentifier(AutoResolutionLoadTest.class);
+        entities = new ReferencedEntities(developer, prefix);
+    }
+
+    @After
+    public void after() throws Exception {
+        TestUser admin = TestUserHelper.getSignedInAdmin();
+        for (TestUser participant : participants) {
+            participant.signOutAndDeleteUser();
+        }
+        // Delete schedules first, or we get constraint violation exceptions.
+        SchedulesV1Api schedulesApi = admin.getClient(SchedulesV1Api.class);
+        for (String guid : planGuids) {
+            schedulesApi.deleteSchedulePlan(guid, true).execute();
+        }
+        CompoundActivityDefinitionsApi compoundApi = developer.getClient(CompoundActivityDefinitionsApi.class);
+        for (String taskId : compoundTaskIds) {
+            compoundApi.deleteCompoundActivityDefinition(taskId).execute();
+        }
+        entities.delete();
+        developer.signOutAndDeleteUser();
+    }
+
+    @Test
+    public void autoResolutionCost() throws Exception {
+        LoadTestHelper.createParticipants(AutoResolutionLoadTest.class, PARTICIPANTS, THREADS, participants);
+
+        for (int entityCount : ENTITY_COUNTS) {
+            while (planGuids.size() < entityCount) {
+                seedEntity(planGuids.size());
+            }
+            String title = String.format("%d schemas, %d surveys, %d compound activities", entityCount,
+                    entityCount, entityCount);
+            measure(title, "cold", participants.size());
+            measure(title, "warm", REQUESTS_PER_STEP);
+
+            entities.publishNewSurveyVersions();
+            measure(title, "afterPublish", participants.size());
+        }
+    }
+
+    /** Run and log one phase on its own, so its throughput is against its own elapsed time. */
+    private void measure(String title, String phase, int requests) throws Exception {
+        recorder.reset();
+        long elapsed = LoadTestHelper.runConcurrently(THREADS, requests, (index) -> {
+            ActivitiesApi activitiesApi = participants.get(index % participants.size())
+                    .getClient(ActivitiesApi.class);
+            return recorder.time(phase, () -> activitiesApi.getScheduledActivities("+0:00", 2, null)
+                    .execute().body());
+        });
+        recorder.log(LOG, title + ", " + phase, elapsed);
+    }
+
+    /**
+     * Creates a schema, a published survey and a compound activity definition referencing both, then a plan
+     * with one activity referencing each, as in ScheduledActivityAutoResolutionTest.
+     */
+    private void seedEntity(int index) throws Exception {
+        SchemaReference schemaRef = entities.createSchema(index);
+        SurveyReference surveyRef = entities.createPublishedSurvey(index);
+        String compoundTaskId = prefix + "-compound-" + index;
+        CompoundActivityDefinition definition = new CompoundActivityDefinition().addSchemaListItem(schemaRef)
+                .addSurveyListItem(surveyRef).taskId(compoundTaskId);
+        developer.getClient(CompoundActivityDefinitionsApi.class).createCompoundActivityDefinition(definition)
+                .execute();
+        compoundTaskIds.add(compoundTaskId);
+
+        Schedule schedule = new Schedule().scheduleType(ScheduleType.ONCE)
+                .addActivitiesItem(new Activity().label(schemaRef.getId()).task(new TaskReference().identifier(TASK_ID)
+                        .schema(schemaRef)))
+                .addActivitiesItem(new Activity().label(surveyRef.getIdentifier()).survey(surveyRef))
+                .addActivitiesItem(new Activity().label(compoundTaskId)
+                        .compoundActivity(new CompoundActivity().taskIdentifier(compoundTaskId)));
+        SchedulePlan plan = new SchedulePlan().label(prefix + "-plan-" + index).strategy(
+                new SimpleScheduleStrategy().schedule(schedule).type("SimpleScheduleStrategy"));
+        planGuids.add(developer.getClient(SchedulesV1Api.class).createSchedulePlan(plan).execute().body()
+                .getGuid());
+    }
+}
@@ -0,0 +1,245 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+import static org.sagebionetworks.bridge.rest.model.NotificationType.START_OF_WINDOW;
+import static org.sagebionetworks.bridge.rest.model.PerformanceOrder.SEQUENTIAL;
+import static org.sagebionetworks.bridge.rest.model.ReminderType.BEFORE_WINDOW_END;
+import static org.sagebionetworks.bridge.util.IntegTestUtils.TEST_APP_ID;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+import org.sagebionetworks.bridge.rest.RestUtils;
+import org.sagebionetworks.bridge.rest.model.AssessmentReference2;
+import org.sagebionetworks.bridge.rest.model.ColorScheme;
+import org.sagebionetworks.bridge.rest.model.HealthDataRecord;
+import org.sagebionetworks.bridge.rest.model.Label;
+import org.sagebionetworks.bridge.rest.model.NotificationMessage;
+import org.sagebionetworks.bridge.rest.model.Schedule2;
+import org.sagebionetworks.bridge.rest.model.Session;
+import org.sagebionetworks.bridge.rest.model.StudyParticipant;
+import org.sagebionetworks.bridge.rest.model.Survey;
+import org.sagebionetworks.bridge.rest.model.SurveyElement;
+import org.sagebionetworks.bridge.rest.model.TimeWindow;
+import org.sagebionetworks.bridge.rest.model.Timeline;
+
+/**
+ * Realistic model instances for the JMH benchmarks, built without a server. Models the client builds itself
+ * (Survey, Schedule2) are built through their setters the way the tests do; models only the server produces
+ * (StudyParticipant, HealthDataRecord, Timeline) are parsed from JSON shaped like the server's responses. The
+ * scale multiplies the repeated parts: survey questions, schedule sessions, timeline entries, record fields,
+ * participant attributes and consents. Scale 1 is about what our studies send today.
+ */
+public class BenchmarkModels {
+
+    public enum ModelType {
+        STUDY_PARTICIPANT(StudyParticipant.class),
+        SURVEY(Survey.class),
+        SCHEDULE2(Schedule2.class),
+        HEALTH_DATA_RECORD(HealthDataRecord.class),
+        TIMELINE(Timeline.class);
+
+        private final Class<?> modelClass;
+
+        ModelType(Class<?> modelClass) {
+            this.modelClass = modelClass;
+        }
+
+        public Class<?> getModelClass() {
+            return modelClass;
+        }
+    }
+
+    public static Object create(ModelType type, int scale) throws Exception {
+        switch(type) {
+        case STUDY_PARTICIPANT:
+            return participant(scale);
+        case SURVEY:
+            return survey(scale);
+        case SCHEDULE2:
+            return schedule(scale);
+        case HEALTH_DATA_RECORD:
+            return healthDataRecord(scale);
+        default:
+            return timeline(scale);
+        }
+    }
+
+    /** TestSurvey's questions (every constraint type), repeated scale times with unique identifiers. */
+    public static Survey survey(int scale) throws Exception {
+        Survey survey = TestSurvey.getSurvey(BenchmarkModels.class);
+        survey.setName("Benchmark survey");
+        survey.setIdentifier("benchmark-survey");
+        List<SurveyElement> originals = new ArrayList<>(survey.getElements());
+        for (int i = 1; i < scale; i++) {
+            for (SurveyElement original : originals) {
+                SurveyElement copy = RestUtils.GSON.fromJson(RestUtils.GSON.toJson(original), original.getClass());
+                copy.setIdentifier(original.getIdentifier() + "_" + i);
+                survey.getElements().add(copy);
+            }
+        }
+        return survey;
+    }
+
+    /** scale sessions, each with three assessments, two time windows and two notification languages. */
+    public static Schedule2 schedule(int scale) {
+        Schedule2 schedule = new Schedule2();
+        schedule.setName("Benchmark schedule");
+        schedule.setDuration("P26W");
+        schedule.setGuid(UUID.randomUUID().toString());
+        schedule.setOwnerId("sage-bionetworks");
+        schedule.setVersion(3L);
+        ColorScheme colorScheme = new ColorScheme().background("#111111").foreground("#222222")
+                .activated("#333333").inactivated("#444444");
+        for (int i = 0; i < scale; i++) {
+            Session session = new Session();
+            session.setName("Session " + i);
+            session.addLabelsItem(new Label().lang("en").value("Take the assessments"));
+            session.addLabelsItem(new Label().lang("fr").value("Passez les évaluations"));
+            session.setStartEventId("enrollment");
+            session.setDelay("P" + (i % 7) + "D");
+            session.setInterval("P1W");
+            session.setPerformanceOrder(SEQUENTIAL);
+            session.setNotifyAt(START_OF_WINDOW);
+            session.setRemindAt(BEFORE_WINDOW_END);
+            session.setReminderPeriod("PT1H");
+            session.setAllowSnooze(true);
+            for (int j = 0; j < 3; j++) {
+                session.addAssessmentsItem(new AssessmentReference2().guid(UUID.randomUUID().toString())
+                        .appId(TEST_APP_ID).colorScheme(colorScheme).revision(j + 1)
+                        .addLabelsItem(new Label().lang("en").value("Assessment " + j)).minutesToComplete(5)
+                        .title("Assessment " + j).identifier("assessment-" + i + "-" + j));
+            }
+            session.addTimeWindowsItem(new TimeWindow().startTime("08:00").expiration("PT6H"));
+            session.addTimeWindowsItem(new TimeWindow().startTime("18:00").expiration("PT4H"));
+            session.addMessagesItem(new NotificationMessage().lang("en").subject("Reminder")
+                    .message("Time to take the assessments"));
+            session.addMessagesItem(new NotificationMessage().lang("fr").subject("Rappel")
+                    .message("Il est temps de passer les évaluations"));
+            schedule.addSessionsItem(session);
+        }
+        return schedule;
+    }
+
+    public static StudyParticipant participant(int scale) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("id", UUID.randomUUID().toString());
+        json.put("firstName", "Benchmark");
+        json.put("lastName", "Participant");
+        json.put("email", "bridge-testing+benchmark@sagebase.org");
+        json.put("phone", ImmutableMap.of("number", "+12065550100", "regionCode", "US", "type", "Phone"));
+        json.put("externalIds", ImmutableMap.of("study1", "ext-" + UUID.randomUUID()));
+        json.put("dataGroups", ImmutableList.of("sdk-int-1", "group1"));
+        json.put("languages", ImmutableList.of("en", "fr"));
+        json.put("sharingScope", "all_qualified_researchers");
+        json.put("notifyByEmail", true);
+        json.put("status", "enabled");
+        json.put("createdOn", "2021-03-01T10:15:30.000Z");
+        json.put("timeZone", "America/Los_Angeles");
+        Map<String, Object> attributes = new LinkedHashMap<>();
+        for (int i = 0; i < 5 * scale; i++) {
+            attributes.put("attribute" + i, "value " + i);
+        }
+        json.put("attributes", attributes);
+        List<Object> histories = new ArrayList<>();
+        for (int i = 0; i < scale; i++) {
+            histories.add(ImmutableMap.builder().put("subpopulationGuid", "api")
+                    .put("consentCreatedOn", 1614593730000L + i).put("name", "Benchmark Participant")
+                    .put("birthdate", "1980-01-01").put("signedOn", 1614593730000L + i)
+                    .put("hasSignedActiveConsent", i == scale - 1).put("type", "UserConsentHistory").build());
+        }
+        json.put("consentHistories", ImmutableMap.of("api", histories));
+        json.put("type", "StudyParticipant");
+        return fromJson(json, StudyParticipant.class);
+    }
+
+    /** A survey response record, with an "answers" field holding JSON as a string, as in UploadTest.testSurvey. */
+    public static HealthDataRecord healthDataRecord(int scale) {
+        Map<String, Object> answers = new LinkedHashMap<>();
+        Map<String, Object> data = new LinkedHashMap<>();
+        for (int i = 0; i < 10 * scale; i++) {
+            answers.put("question" + i, ImmutableList.of("answer " + i, "other answer " + i));
+            data.put("field" + i, (i % 2 == 0) ? "value " + i : i);
+        }
+        data.put("answers", RestUtils.GSON.toJson(answers));
+
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("id", UUID.randomUUID().toString());
+        json.put("healthCode", UUID.randomUUID().toString());
+        json.put("appVersion", "version 1.0.0, build 1");
+        json.put("phoneInfo", "Integration Tests");
+        json.put("createdOn", "2021-03-01T10:15:30.000Z");
+        json.put("createdOnTimeZone", "-0800");
+        json.put("data", data);
+        json.put("metadata", ImmutableMap.of("taskRunGuid", UUID.randomUUID().toString(), "startDate",
+                "2021-03-01T10:10:00.000Z", "endDate", "2021-03-01T10:15:00.000Z"));
+        json.put("userMetadata", ImmutableMap.of("taskIdentifier", "benchmark"));
+        json.put("schemaId", "benchmark-survey");
+        json.put("schemaRevision", 1);
+        json.put("uploadDate", "2021-03-01");
+        json.put("uploadId", UUID.randomUUID().toString());
+        json.put("userSharingScope", "all_qualified_researchers");
+        json.put("userDataGroups", ImmutableList.of("sdk-int-1"));
+        json.put("synapseExporterStatus", "not_exported");
+        json.put("type", "HealthDataRecord");
+        return fromJson(json, HealthDataRecord.class);
+    }
+
+    /**
+     * The timeline of schedule(scale): each session performed daily over the schedule's 26 weeks, with three
+     * assessments per performance.
+     */
+    public static Timeline timeline(int scale) {
+        List<Object> assessments = new ArrayList<>();
+        List<Object> sessions = new ArrayList<>();
+        List<Object> scheduled = new ArrayList<>();
+        Map<String, Object> colorScheme = ImmutableMap.of("background", "#111111", "foreground", "#222222",
+                "activated", "#333333", "inactivated", "#444444", "type", "ColorScheme");
+        for (int i = 0; i < scale; i++) {
+            String sessionGuid = UUID.randomUUID().toString();
+            sessions.add(ImmutableMap.builder().put("guid", sessionGuid).put("label", "Session " + i)
+                    .put("startEventId", "enrollment").put("performanceOrder", "sequential")
+                    .put("notifyAt", "start_of_window").put("remindAt", "before_window_end")
+                    .put("reminderPeriod", "PT1H").put("allowSnooze", true).put("minutesToComplete", 15)
+                    .put("message", ImmutableMap.of("lang", "en", "subject", "Reminder", "message",
+                            "Time to take the assessments", "type", "NotificationMessage"))
+                    .put("type", "SessionInfo").build());
+            List<String> keys = new ArrayList<>();
+            for (int j = 0; j < 3; j++) {
+                String key = Integer.toHexString((i * 3 + j) * 31 + 17);
+                keys.add(key);
+                assessments.add(ImmutableMap.builder().put("key", key).put("guid", UUID.randomUUID().toString())
+                        .put("appId", TEST_APP_ID).put("identifier", "assessment-" + i + "-" + j)
+                        .put("revision", j + 1).put("label", "Assessment " + j).put("minutesToComplete", 5)
+                        .put("colorScheme", colorScheme).put("type", "AssessmentInfo").build());
+            }
+            for (int day = 0; day < 26 * 7; day++) {
+                List<Object> scheduledAssessments = new ArrayList<>();
+                for (String key : keys) {
+                    scheduledAssessments.add(ImmutableMap.of("refKey", key, "instanceGuid",
+                            UUID.randomUUID().toString(), "type", "ScheduledAssessment"));
+                }
+                scheduled.add(ImmutableMap.builder().put("refGuid", sessionGuid)
+                        .put("instanceGuid", UUID.randomUUID().toString()).put("startDay", day).put("endDay", day)
+                        .put("startTime", "08:00").put("expiration", "PT6H").put("assessments", scheduledAssessments)
+                        .put("type", "ScheduledSession").build());
+            }
+        }
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("duration", "P26W");
+        json.put("assessments", assessments);
+        json.put("sessions", sessions);
+        json.put("schedule", scheduled);
+        json.put("type", "Timeline");
+        return fromJson(json, Timeline.class);
+    }
+
+    private static <T> T fromJson(Map<String, Object> json, Class<T> cls) {
+        return RestUtils.GSON.fromJson(RestUtils.GSON.toJson(json), cls);
+    }
+}
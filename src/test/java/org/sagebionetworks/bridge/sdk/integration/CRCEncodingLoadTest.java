@@ -0,0 +1,76 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+import static org.sagebionetworks.bridge.sdk.integration.CRCTest.CONTEXT;
+import static org.sagebionetworks.bridge.sdk.integration.LoadTestHelper.intProperty;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+import com.google.common.collect.ImmutableList;
+import org.hl7.fhir.instance.model.api.IBaseResource;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import ca.uhn.fhir.parser.IParser;
+
+/**
+ * Measures the client-side HAPI cost of encoding (and re-parsing) the FHIR resources CRCLoadTest posts: time
+ * per operation, encoded size, and bytes allocated. Runs entirely in process, with no server or account; the
+ * resources reference a fixed user ID.
+ */
+@Category(LoadTest.class)
+public class CRCEncodingLoadTest {
+    private static final Logger LOG = LoggerFactory.getLogger(CRCEncodingLoadTest.class);
+
+    private static final int ENCODE_ITERATIONS = intProperty("crcEncodeIterations", 2000);
+    private static final String USER_ID = "crc-encoding-user";
+
+    private final LatencyRecorder recorder = new LatencyRecorder();
+
+    @Test
+    public void clientSideEncodingCost() throws Exception {
+        long start = System.nanoTime();
+        IParser parser = recorder.time("newJsonParser", () -> CONTEXT.newJsonParser());
+        for (int i = 1; i < 100; i++) {
+            recorder.time("newJsonParser", () -> CONTEXT.newJsonParser());
+        }
+        long[] encodedBytes = new long[3];
+        long[] allocatedBytes = new long[3];
+        long[] parseAllocatedBytes = new long[3];
+        for (int i = 0; i < ENCODE_ITERATIONS; i++) {
+            IBaseResource resource = CRCLoadTest.makeResource(i, USER_ID);
+            String type = resource.getClass().getSimpleName();
+            int typeIndex = i % 3;
+
+            long allocStart = allocatedBytes();
+            String json = recorder.time("encode/" + type, () -> parser.encodeResourceToString(resource));
+            allocatedBytes[typeIndex] += allocatedBytes() - allocStart;
+            encodedBytes[typeIndex] += json.length();
+
+            allocStart = allocatedBytes();
+            recorder.time("parse/" + type, () -> parser.parseResource(resource.getClass(), json));
+            parseAllocatedBytes[typeIndex] += allocatedBytes() - allocStart;
+        }
+        long elapsed = System.nanoTime() - start;
+        recorder.log(LOG, "Client-side HAPI FHIR cost (" + ENCODE_ITERATIONS + " resources)", elapsed);
+
+        int perType = ENCODE_ITERATIONS / 3;
+        List<String> types = ImmutableList.of("Appointment", "ProcedureRequest", "Observation");
+        for (int i = 0; i < 3; i++) {
+            LOG.info("  {}: {} chars/resource, encode allocates {} bytes/resource, parse allocates {} bytes/resource",
+                    types.get(i), encodedBytes[i] / perType, allocatedBytes[i] / perType,
+                    parseAllocatedBytes[i] / perType);
+        }
+    }
+
+    /** Bytes allocated by the current thread so far, or 0 if the JVM does not support the measurement. */
+    static long allocatedBytes() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean)bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return 0L;
+    }
+}
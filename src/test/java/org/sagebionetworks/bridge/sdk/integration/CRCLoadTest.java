@@ -0,0 +1,157 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+import static org.apache.http.entity.ContentType.APPLICATION_JSON;
+import static org.hl7.fhir.dstu3.model.Appointment.AppointmentStatus.BOOKED;
+import static org.sagebionetworks.bridge.sdk.integration.CRCTest.CONTEXT;
+import static org.sagebionetworks.bridge.sdk.integration.CRCTest.USER_ID_VALUE_NS;
+import static org.sagebionetworks.bridge.sdk.integration.LoadTestHelper.intProperty;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.google.common.collect.ImmutableList;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.fluent.Request;
+import org.apache.http.util.EntityUtils;
+import org.hl7.fhir.dstu3.model.Appointment;
+import org.hl7.fhir.dstu3.model.Appointment.AppointmentParticipantComponent;
+import org.hl7.fhir.dstu3.model.CodeableConcept;
+import org.hl7.fhir.dstu3.model.Coding;
+import org.hl7.fhir.dstu3.model.Extension;
+import org.hl7.fhir.dstu3.model.Identifier;
+import org.hl7.fhir.dstu3.model.Observation;
+import org.hl7.fhir.dstu3.model.ProcedureRequest;
+import org.hl7.fhir.dstu3.model.Range;
+import org.hl7.fhir.dstu3.model.Reference;
+import org.hl7.fhir.dstu3.model.StringType;
+import org.hl7.fhir.instance.model.api.IBaseResource;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import ca.uhn.fhir.parser.IParser;
+
+/**
+ * Posts batches of FHIR Appointment, ProcedureRequest and Observation resources to the CRC endpoints
+ * concurrently. Uses the CRC account set up by CRCTest; all resources reference that account's user ID.
+ * CRCEncodingLoadTest measures the client-side HAPI cost of the same resources, without a server, so the
+ * two sides of the lab integration pipeline can be compared.
+ */
+@Category(LoadTest.class)
+public class CRCLoadTest {
+    private static final Logger LOG = LoggerFactory.getLogger(CRCLoadTest.class);
+
+    private static final int BATCH_SIZE = intProperty("crcBatchSize", 30);
+    private static final int BATCHES = intProperty("crcBatches", 5);
+    private static final int THREADS = intProperty("threads", 8);
+    private static final List<String> OBSERVATION_CODES = ImmutableList.of("484670513", "111110111");
+    private static final List<String> OBSERVATION_RESULTS = ImmutableList.of("Positive", "Negative",
+            "Indeterminate");
+
+    private final CRCTest crcTest = new CRCTest();
+    private final LatencyRecorder recorder = new LatencyRecorder();
+
+    @Before
+    public void before() throws Exception {
+        crcTest.beforeMethod();
+    }
+
+    @After
+    public void after() throws Exception {
+        crcTest.afterMethod();
+    }
+
+    @Test
+    public void postResourcesConcurrently() throws Exception {
+        // Parsers are not thread-safe, so each submitting thread gets its own.
+        ThreadLocal<IParser> parsers = ThreadLocal.withInitial(CONTEXT::newJsonParser);
+
+        long start = System.nanoTime();
+        for (int batch = 0; batch < BATCHES; batch++) {
+            List<IBaseResource> resources = new ArrayList<>();
+            for (int i = 0; i < BATCH_SIZE; i++) {
+                resources.add(makeResource(batch * BATCH_SIZE + i, CRCTest.user.getUserId()));
+            }
+            LoadTestHelper.runConcurrently(THREADS, resources.size(), (index) -> {
+                IBaseResource resource = resources.get(index);
+                String type = resource.getClass().getSimpleName();
+                String body = recorder.time("encode/" + type,
+                        () -> parsers.get().encodeResourceToString(resource));
+                return recorder.time("put/" + type, () -> put(endpointFor(resource), body));
+            });
+        }
+        long elapsed = System.nanoTime() - start;
+        recorder.log(LOG, "CRC resource submission (" + BATCHES + " batches of " + BATCH_SIZE + ")", elapsed);
+
+        double perMinute = recorder.getSummary("put/Observation").getThroughput(elapsed) * 60;
+        LOG.info("  lab results (Observations) absorbed: {}/minute", String.format("%.0f", perMinute));
+    }
+
+    private String put(String path, String body) throws Exception {
+        HttpResponse response = Request.Put(CRCTest.host + path)
+                .addHeader("Authorization", "Basic " + CRCTest.credentials)
+                .bodyString(body, APPLICATION_JSON)
+                .execute()
+                .returnResponse();
+        int status = response.getStatusLine().getStatusCode();
+        String content = EntityUtils.toString(response.getEntity());
+        if (status != 200 && status != 201) {
+            throw new IllegalStateException("HTTP " + status + ": " + content);
+        }
+        return content;
+    }
+
+    private static String endpointFor(IBaseResource resource) {
+        if (resource instanceof Appointment) {
+            return "/v1/cuimc/appointments";
+        } else if (resource instanceof ProcedureRequest) {
+            return "/v1/cuimc/procedurerequests";
+        }
+        return "/v1/cuimc/observations";
+    }
+
+    /** Rotates between the three resource types, each with a distinct ID, all referencing the given user. */
+    static IBaseResource makeResource(int index, String userId) {
+        Reference ref = userReference(userId);
+        switch(index % 3) {
+        case 0:
+            Appointment appointment = new Appointment();
+            appointment.setId("appointment-" + index);
+            appointment.setStatus(BOOKED);
+            AppointmentParticipantComponent idComp = new AppointmentParticipantComponent();
+            idComp.setActor(ref);
+            appointment.addParticipant(idComp);
+            return appointment;
+        case 1:
+            ProcedureRequest procedure = new ProcedureRequest();
+            procedure.setId("procedure-" + index);
+            procedure.setSubject(ref);
+            return procedure;
+        default:
+            Observation observation = new Observation();
+            observation.setId("observation-" + index);
+            Coding coding = new Coding().setCode(OBSERVATION_CODES.get(index % OBSERVATION_CODES.size()));
+            observation.setCode(new CodeableConcept().addCoding(coding));
+            Extension extension = new Extension();
+            extension.setUrl("some-value");
+            extension.setValue(new StringType(OBSERVATION_RESULTS.get(index % OBSERVATION_RESULTS.size())));
+            Range range = new Range();
+            range.addExtension(extension);
+            observation.setValue(range);
+            observation.setSubject(ref);
+            return observation;
+        }
+    }
+
+    private static Reference userReference(String userId) {
+        Identifier id = new Identifier();
+        id.setSystem(USER_ID_VALUE_NS);
+        id.setValue(userId);
+        Reference ref = new Reference();
+        ref.setIdentifier(id);
+        return ref;
+    }
+}
@@ -10,6 +10,7 @@ import java.io.IOException;
 import java.util.Base64;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
@@ -84,19 +85,25 @@ public class CRCTest {
     static String credentials;
     
     @Before
-    public void beforeMethod() throws IOException {
+    public void beforeMethod() throws Exception {
         adminUser = TestUserHelper.getSignedInAdmin();
         AppsApi appsApi = adminUser.getClient(AppsApi.class);
         
+        // The account search and the app are independent reads, so fetch them together.
+        AsyncCalls async = new AsyncCalls();
         AccountSummarySearch search = new AccountSummarySearch()
                 .emailFilter(TEST_EMAIL);
-        AccountSummaryList list = adminUser.getClient(ParticipantsApi.class).searchAccountSummaries(search).execute().body();
+        CompletableFuture<AccountSummaryList> listFuture = async
+                .body(adminUser.getClient(ParticipantsApi.class).searchAccountSummaries(search));
+        CompletableFuture<App> appFuture = async.body(appsApi.getUsersApp());
+        
+        AccountSummaryList list = AsyncCalls.await(listFuture);
         if (!list.getItems().isEmpty()) {
             String userId = list.getItems().get(0).getId();
             adminUser.getClient(ForAdminsApi.class).deleteUser(userId).execute();
         }
         
-        App app = appsApi.getUsersApp().execute().body();
+        App app = AsyncCalls.await(appFuture);
         if (!app.getDataGroups().containsAll(WORKFLOW_TAGS) ||
             !app.getUserProfileAttributes().containsAll(USER_PROFILE_ATTRIBUTES) ||
             !app.isHealthCodeExportEnabled()) {
@@ -0,0 +1,197 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+import static org.sagebionetworks.bridge.sdk.integration.LoadTestHelper.intListProperty;
+import static org.sagebionetworks.bridge.sdk.integration.LoadTestHelper.intProperty;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import com.google.common.collect.Lists;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.sagebionetworks.bridge.rest.api.ActivitiesApi;
+import org.sagebionetworks.bridge.rest.api.CompoundActivityDefinitionsApi;
+import org.sagebionetworks.bridge.rest.api.SchedulesV1Api;
+import org.sagebionetworks.bridge.rest.exceptions.EntityNotFoundException;
+import org.sagebionetworks.bridge.rest.model.Activity;
+import org.sagebionetworks.bridge.rest.model.CompoundActivity;
+import org.sagebionetworks.bridge.rest.model.CompoundActivityDefinition;
+import org.sagebionetworks.bridge.rest.model.Role;
+import org.sagebionetworks.bridge.rest.model.Schedule;
+import org.sagebionetworks.bridge.rest.model.SchedulePlan;
+import org.sagebionetworks.bridge.rest.model.ScheduleType;
+import org.sagebionetworks.bridge.rest.model.SchemaReference;
+import org.sagebionetworks.bridge.rest.model.SimpleScheduleStrategy;
+import org.sagebionetworks.bridge.rest.model.SurveyReference;
+import org.sagebionetworks.bridge.user.TestUserHelper;
+import org.sagebionetworks.bridge.user.TestUserHelper.TestUser;
+
+/**
+ * Grows a catalog of compound activity definitions through loadtest.catalogSizes and measures the definition API
+ * and scheduling against it. Every definition bundles loadtest.referencesPerDefinition schemas and as many
+ * published surveys, all real, so they resolve on the scheduling path as in ScheduledActivityAutoResolutionTest.
+ * At each size this measures getAllCompoundActivityDefinitions, getCompoundActivityDefinition on random
+ * definitions, updateCompoundActivityDefinition, and deleteCompoundActivityDefinition on definitions created for
+ * the purpose (so the catalog keeps its size). It also measures getScheduledActivities for
+ * participants whose schedule plan references loadtest.plannedCompoundActivities of the definitions. The
+ * scheduling latency before that plan exists is logged once as a baseline.
+ */
+@Category(LoadTest.class)
+public class CompoundActivityCatalogLoadTest {
+    private static final Logger LOG = LoggerFactory.getLogger(CompoundActivityCatalogLoadTest.class);
+
+    private static final List<Integer> CATALOG_SIZES = intListProperty("catalogSizes", "25,100,400");
+    private static final int REFERENCES_PER_DEFINITION = intProperty("referencesPerDefinition", 10);
+    private static final int PLANNED_COMPOUND_ACTIVITIES = intProperty("plannedCompoundActivities", 10);
+    private static final int PARTICIPANTS = intProperty("participants", 10);
+    private static final int REQUESTS_PER_STEP = intProperty("requestsPerStep", 100);
+    private static final int DELETES_PER_STEP = intProperty("deletesPerStep", 20);
+    private static final int THREADS = intProperty("threads", 8);
+
+    private TestUser developer;
+    private CompoundActivityDefinitionsApi compoundApi;
+    private String prefix;
+    private ReferencedEntities entities;
+    private final List<SchemaReference> schemaRefs = new ArrayList<>();
+    private final List<SurveyReference> surveyRefs = new ArrayList<>();
+    private final List<String> taskIds = new ArrayList<>();
+    private final List<String> scratchTaskIds = new ArrayList<>();
+    private String planGuid;
+    private final List<TestUser> participants = new ArrayList<>();
+    private final LatencyRecorder recorder = new LatencyRecorder();
+
+    @Before
+    public void before() throws Exception {
+        developer = TestUserHelper.createAndSignInUser(CompoundActivityCatalogLoadTest.class, false,
+                Role.DEVELOPER);
+        compoundApi = developer.getClient(CompoundActivityDefinitionsApi.class);
+        prefix = Tests.randomIdentifier(CompoundActivityCatalogLoadTest.class);
+        entities = new ReferencedEntities(developer, prefix);
+    }
+
+    @After
+    public void after() throws Exception {
+        TestUser admin = TestUserHelper.getSignedInAdmin();
+        for (TestUser participant : participants) {
+            participant.signOutAndDeleteUser();
+        }
+        // Delete the plan first, or we get constraint violation exceptions.
+        if (planGuid != null) {
+            admin.getClient(SchedulesV1Api.class).deleteSchedulePlan(planGuid, true).execute();
+        }
+        List<String> allTaskIds = new ArrayList<>(taskIds);
+        allTaskIds.addAll(scratchTaskIds);
+        for (String taskId : allTaskIds) {
+            try {
+                compoundApi.deleteCompoundActivityDefinition(taskId).execute();
+            } catch(EntityNotFoundException e) {
+                // this is okay
+            }
+        }
+        entities.delete();
+        developer.signOutAndDeleteUser();
+    }
+
+    @Test
+    public void compoundActivityCatalog() throws Exception {
+        for (int i = 0; i < REFERENCES_PER_DEFINITION; i++) {
+            schemaRefs.add(entities.createSchema(i));
+            surveyRefs.add(entities.createPublishedSurvey(i));
+        }
+        LoadTestHelper.createParticipants(CompoundActivityCatalogLoadTest.class, PARTICIPANTS, THREADS,
+                participants);
+        long baseline = measureScheduling("getScheduledActivities");
+        recorder.log(LOG, "Scheduling before any plan references compound activities", baseline);
+
+        for (int catalogSize : CATALOG_SIZES) {
+            recorder.reset();
+            int existing = taskIds.size();
+            long elapsed = 0L;
+            if (catalogSize > existing) {
+                elapsed = LoadTestHelper.runConcurrently(THREADS, catalogSize - existing, (index) -> {
+                    String taskId = createDefinition(prefix + "-compound-" + (existing + index));
+                    synchronized (taskIds) {
+                        taskIds.add(taskId);
+                    }
+                    return taskId;
+                });
+            }
+            if (planGuid == null) {
+                createPlan();
+            }
+            List<String> catalog = new ArrayList<>(taskIds);
+            elapsed += LoadTestHelper.runConcurrently(THREADS, REQUESTS_PER_STEP, (index) -> {
+                String taskId = catalog.get(ThreadLocalRandom.current().nextInt(catalog.size()));
+                if (index % 2 == 0) {
+                    return recorder.time("getAllCompoundActivityDefinitions", () -> compoundApi
+                            .getAllCompoundActivityDefinitions().execute().body());
+                }
+                return recorder.time("getCompoundActivityDefinition", () -> compoundApi
+                        .getCompoundActivityDefinition(taskId).execute().body());
+            });
+            // Each update gets its own definition, so concurrent updates don't conflict on the version.
+            elapsed += LoadTestHelper.runConcurrently(THREADS, Math.min(REQUESTS_PER_STEP, catalog.size()),
+                    (index) -> update(catalog.get(index)));
+            elapsed += measureDeletes(catalogSize);
+            elapsed += measureScheduling("getScheduledActivities with plan");
+            recorder.log(LOG, String.format("%d compound activity definitions of %d schemas and %d surveys",
+                    taskIds.size(), REFERENCES_PER_DEFINITION, REFERENCES_PER_DEFINITION), elapsed);
+        }
+    }
+
+    private CompoundActivityDefinition update(String taskId) throws Exception {
+        CompoundActivityDefinition definition = compoundApi.getCompoundActivityDefinition(taskId).execute()
+                .body();
+        definition.schemaList(Lists.reverse(definition.getSchemaList()))
+                .surveyList(Lists.reverse(definition.getSurveyList()));
+        return recorder.time("updateCompoundActivityDefinition", () -> compoundApi
+                .updateCompoundActivityDefinition(taskId, definition).execute().body());
+    }
+
+    private long measureDeletes(int catalogSize) throws Exception {
+        List<String> scratch = new ArrayList<>();
+        for (int i = 0; i < DELETES_PER_STEP; i++) {
+            scratch.add(createDefinition(prefix + "-scratch-" + catalogSize + "-" + i));
+        }
+        // Kept for cleanup in case a delete fails.
+        scratchTaskIds.addAll(scratch);
+        long elapsed = LoadTestHelper.runConcurrently(THREADS, scratch.size(), (index) -> recorder.time(
+                "deleteCompoundActivityDefinition", () -> compoundApi.deleteCompoundActivityDefinition(
+                        scratch.get(index)).execute()));
+        return elapsed;
+    }
+
+    private long measureScheduling(String operation) throws Exception {
+        return LoadTestHelper.runConcurrently(THREADS, REQUESTS_PER_STEP, (index) -> {
+            ActivitiesApi activitiesApi = participants.get(index % participants.size())
+                    .getClient(ActivitiesApi.class);
+            return recorder.time(operation, () -> activitiesApi.getScheduledActivities("+0:00", 2, null)
+                    .execute().body());
+        });
+    }
+
+    private String createDefinition(String taskId) throws Exception {
+        CompoundActivityDefinition definition = new CompoundActivityDefinition().taskId(taskId)
+                .schemaList(schemaRefs).surveyList(surveyRefs);
+        return recorder.time("createCompoundActivityDefinition", () -> compoundApi
+                .createCompoundActivityDefinition(definition).execute().body().getTaskId());
+    }
+
+    /** A ONCE plan with one compound activity for each of the first definitions in the catalog. */
+    private void createPlan() throws Exception {
+        Schedule schedule = new Schedule().scheduleType(ScheduleType.ONCE);
+        for (String taskId : taskIds.subList(0, Math.min(PLANNED_COMPOUND_ACTIVITIES, taskIds.size()))) {
+            schedule.addActivitiesItem(new Activity().label(taskId)
+                    .compoundActivity(new CompoundActivity().taskIdentifier(taskId)));
+        }
+        SchedulePlan plan = new SchedulePlan().label(prefix + "-plan").strategy(
+                new SimpleScheduleStrategy().schedule(schedule).type("SimpleScheduleStrategy"));
+        planGuid = developer.getClient(SchedulesV1Api.class).createSchedulePlan(plan).execute().body().getGuid();
+    }
+}
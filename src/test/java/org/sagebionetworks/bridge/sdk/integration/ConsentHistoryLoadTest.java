@@ -0,0 +1,197 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+import static org.sagebionetworks.bridge.rest.model.Role.DEVELOPER;
+import static org.sagebionetworks.bridge.rest.model.SharingScope.NO_SHARING;
+import static org.sagebionetworks.bridge.sdk.integration.LoadTestHelper.intListProperty;
+import static org.sagebionetworks.bridge.sdk.integration.LoadTestHelper.intProperty;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.joda.time.DateTime;
+import org.joda.time.LocalDate;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.sagebionetworks.bridge.rest.api.ForAdminsApi;
+import org.sagebionetworks.bridge.rest.api.ForConsentedUsersApi;
+import org.sagebionetworks.bridge.rest.api.StudyConsentsApi;
+import org.sagebionetworks.bridge.rest.api.SubpopulationsApi;
+import org.sagebionetworks.bridge.rest.exceptions.EntityNotFoundException;
+import org.sagebionetworks.bridge.rest.model.ConsentSignature;
+import org.sagebionetworks.bridge.rest.model.StudyConsent;
+import org.sagebionetworks.bridge.rest.model.Subpopulation;
+import org.sagebionetworks.bridge.rest.model.Withdrawal;
+import org.sagebionetworks.bridge.user.TestUserHelper;
+import org.sagebionetworks.bridge.user.TestUserHelper.TestUser;
+
+/**
+ * Grows the consent document history of several subpopulations and measures reading, publishing and signing
+ * against it. loadtest.consentSubpopulations optional subpopulations (as in StudyConsentTest) each get revisions
+ * of a consent document of roughly loadtest.consentDocumentKb of HTML, until they have each of
+ * loadtest.consentRevisionCounts. At each size this measures getPublishedConsent, getMostRecentConsent,
+ * getConsent for a random revision and getAllConsents, which returns the whole history in one response (the API
+ * doesn't page it). Then the newest revision of each subpopulation is published and participants sign it: the
+ * first signature after publishing is recorded separately, since it pays for rendering the new document into the
+ * consent PDF, and the participants then withdraw so they can sign again at the next size.
+ *
+ * Signing sends the consent agreement by email, so keep loadtest.consentSigners modest.
+ */
+@Category(LoadTest.class)
+public class ConsentHistoryLoadTest {
+    private static final Logger LOG = LoggerFactory.getLogger(ConsentHistoryLoadTest.class);
+
+    private static final int SUBPOPULATIONS = intProperty("consentSubpopulations", 3);
+    private static final List<Integer> REVISION_COUNTS = intListProperty("consentRevisionCounts", "10,50,200");
+    private static final int DOCUMENT_KB = intProperty("consentDocumentKb", 50);
+    private static final int READS_PER_STEP = intProperty("readsPerStep", 100);
+    private static final int SIGNERS = intProperty("consentSigners", 5);
+    private static final int THREADS = intProperty("threads", 8);
+    private static final Withdrawal WITHDRAWAL = new Withdrawal().reason("ConsentHistoryLoadTest");
+
+    private TestUser developer;
+    private StudyConsentsApi consentsApi;
+    private final List<TestUser> signers = new ArrayList<>();
+    private final List<String> subpopGuids = new ArrayList<>();
+    private final Map<String, List<DateTime>> revisions = new ConcurrentHashMap<>();
+    private final LatencyRecorder recorder = new LatencyRecorder();
+
+    @Before
+    public void before() throws Exception {
+        developer = TestUserHelper.createAndSignInUser(ConsentHistoryLoadTest.class, false, DEVELOPER);
+        consentsApi = developer.getClient(StudyConsentsApi.class);
+        for (int i = 0; i < SIGNERS; i++) {
+            signers.add(TestUserHelper.createAndSignInUser(ConsentHistoryLoadTest.class, true));
+        }
+    }
+
+    @After
+    public void after() throws Exception {
+        ForAdminsApi adminsApi = TestUserHelper.getSignedInAdmin().getClient(ForAdminsApi.class);
+        for (TestUser signer : signers) {
+            signer.signOutAndDeleteUser();
+        }
+        for (String guid : subpopGuids) {
+            try {
+                adminsApi.deleteSubpopulation(guid, true).execute();
+            } catch(EntityNotFoundException e) {
+                // this is okay
+            }
+        }
+        if (developer != null) {
+            developer.signOutAndDeleteUser();
+        }
+    }
+
+    @Test
+    public void consentHistory() throws Exception {
+        SubpopulationsApi subpopulationsApi = developer.getClient(SubpopulationsApi.class);
+        for (int i = 0; i < SUBPOPULATIONS; i++) {
+            Subpopulation subpop = new Subpopulation().name(Tests.randomIdentifier(ConsentHistoryLoadTest.class))
+                    .required(false);
+            String guid = subpopulationsApi.createSubpopulation(subpop).execute().body().getGuid();
+            subpopGuids.add(guid);
+            revisions.put(guid, new ArrayList<>());
+        }
+        String document = document(DOCUMENT_KB);
+
+        for (int revisionCount : REVISION_COUNTS) {
+            recorder.reset();
+            int existing = revisions.get(subpopGuids.get(0)).size();
+            int toCreate = revisionCount - existing;
+            long elapsed = 0L;
+            if (toCreate > 0) {
+                elapsed = LoadTestHelper.runConcurrently(THREADS, subpopGuids.size(), (index) -> {
+                    String guid = subpopGuids.get(index);
+                    for (int i = 0; i < toCreate; i++) {
+                        createConsent(guid, "<h1>Revision " + (existing + i) + "</h1>" + document);
+                    }
+                    return null;
+                });
+            }
+            elapsed += measureReads();
+            for (String guid : subpopGuids) {
+                elapsed += publishAndSign(guid);
+            }
+            recorder.log(LOG, String.format("%d subpopulations with %d consent revisions of %d KB",
+                    SUBPOPULATIONS, revisionCount, DOCUMENT_KB), elapsed);
+        }
+    }
+
+    private void createConsent(String guid, String content) throws Exception {
+        StudyConsent consent = new StudyConsent().documentContent(content);
+        DateTime createdOn = recorder.time("createConsent", () -> consentsApi.createConsent(guid, consent)
+                .execute().body().getCreatedOn());
+        List<DateTime> createdOns = revisions.get(guid);
+        synchronized (createdOns) {
+            createdOns.add(createdOn);
+        }
+    }
+
+    private long measureReads() throws Exception {
+        return LoadTestHelper.runConcurrently(THREADS, READS_PER_STEP, (index) -> {
+            String guid = subpopGuids.get(index % subpopGuids.size());
+            switch (index % 4) {
+                case 0:
+                    return recorder.time("getPublishedConsent", () -> consentsApi.getPublishedConsent(guid)
+                            .execute().body());
+                case 1:
+                    return recorder.time("getMostRecentConsent", () -> consentsApi.getMostRecentConsent(guid)
+                            .execute().body());
+                case 2:
+                    List<DateTime> createdOns = revisions.get(guid);
+                    DateTime createdOn = createdOns.get(ThreadLocalRandom.current().nextInt(createdOns.size()));
+                    return recorder.time("getConsent", () -> consentsApi.getConsent(guid, createdOn)
+                            .execute().body());
+                default:
+                    return recorder.time("getAllConsents", () -> consentsApi.getAllConsents(guid).execute().body());
+            }
+        });
+    }
+
+    /**
+     * Publish the newest revision, then have every signer consent to it: the first on its own (the cold render),
+     * the rest concurrently. Signers withdraw afterwards. Returns the elapsed time in nanoseconds.
+     */
+    private long publishAndSign(String guid) throws Exception {
+        List<DateTime> createdOns = revisions.get(guid);
+        DateTime newest = createdOns.get(createdOns.size() - 1);
+        long start = System.nanoTime();
+        recorder.time("publishConsent", () -> consentsApi.publishConsent(guid, newest).execute());
+        ConsentSignature signature = new ConsentSignature().name("Test User")
+                .birthdate(LocalDate.parse("1970-04-04")).scope(NO_SHARING);
+        recorder.time("createConsentSignature first after publish", () -> signers.get(0)
+                .getClient(ForConsentedUsersApi.class).createConsentSignature(guid, signature).execute());
+        LoadTestHelper.runConcurrently(THREADS, signers.size() - 1, (index) -> recorder.time(
+                "createConsentSignature", () -> signers.get(index + 1).getClient(ForConsentedUsersApi.class)
+                        .createConsentSignature(guid, signature).execute()));
+        long elapsed = System.nanoTime() - start;
+        LoadTestHelper.runConcurrently(THREADS, signers.size(), (index) -> recorder.time(
+                "withdrawConsentFromSubpopulation", () -> signers.get(index).getClient(ForConsentedUsersApi.class)
+                        .withdrawConsentFromSubpopulation(guid, WITHDRAWAL).execute()));
+        return elapsed;
+    }
+
+    /** An HTML consent document of about the given size, in sections of headed paragraphs. */
+    private static String document(int sizeKb) {
+        String paragraph = "<p>By taking part in this study you agree to share the data you contribute with the "
+                + "study team. You may withdraw at any time, and we will stop collecting new data from you. Data "
+                + "that has already been shared cannot be recalled.</p>\n";
+        StringBuilder builder = new StringBuilder();
+        int section = 0;
+        while (builder.length() < sizeKb * 1024) {
+            if (builder.length() / 2048 >= section) {
+                builder.append("<h2>Section ").append(++section).append("</h2>\n");
+            }
+            builder.append(paragraph);
+        }
+        return builder.toString();
+    }
+}
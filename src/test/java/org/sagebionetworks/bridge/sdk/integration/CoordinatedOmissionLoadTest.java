@@ -0,0 +1,91 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+import static org.sagebionetworks.bridge.sdk.integration.LoadTestHelper.doubleProperty;
+import static org.sagebionetworks.bridge.sdk.integration.LoadTestHelper.intProperty;
+import static org.sagebionetworks.bridge.sdk.integration.LoadTestHelper.stringProperty;
+import static org.sagebionetworks.bridge.sdk.integration.Tests.PASSWORD;
+import static org.sagebionetworks.bridge.util.IntegTestUtils.TEST_APP_ID;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.sagebionetworks.bridge.rest.api.ForAdminsApi;
+import org.sagebionetworks.bridge.rest.api.ForConsentedUsersApi;
+import org.sagebionetworks.bridge.rest.model.SignIn;
+import org.sagebionetworks.bridge.rest.model.SignUp;
+import org.sagebionetworks.bridge.user.TestUserHelper;
+import org.sagebionetworks.bridge.user.TestUserHelper.TestUser;
+import org.sagebionetworks.bridge.util.IntegTestUtils;
+
+/**
+ * Runs the same participant scenario (reading the participant record) under the three LoadDriver modes: a
+ * closed loop without pacing, which is how a polling loop like UploadTest's measures and under-reports the
+ * tail; the same loop with pacing and coordinated omission correction; and an open loop at the equivalent
+ * arrival rate. Comparing their percentiles shows how much tail latency an uncorrected loop hides. With
+ * -Dloadtest.standIn=true the stand-in server gets a long-tailed latency distribution (-Dloadtest.driverBehavior,
+ * an EndpointBehavior spec) so the effect shows without a live server.
+ */
+@Category(LoadTest.class)
+public class CoordinatedOmissionLoadTest {
+    private static final Logger LOG = LoggerFactory.getLogger(CoordinatedOmissionLoadTest.class);
+
+    private static final int VIRTUAL_USERS = intProperty("virtualUsers", 8);
+    private static final int PACING_MILLIS = intProperty("pacingMillis", 100);
+    private static final double ARRIVAL_RATE = doubleProperty("arrivalRate", VIRTUAL_USERS * 1000d / PACING_MILLIS);
+    private static final int DURATION_MILLIS = intProperty("durationMillis", 30000);
+    private static final String STAND_IN_BEHAVIOR = stringProperty("driverBehavior", "10,40,0.01,503");
+
+    private TestUser user;
+    private ForAdminsApi standInAdminApi;
+    private String standInUserId;
+    private ForConsentedUsersApi usersApi;
+
+    @Before
+    public void before() throws Exception {
+        if (LoadTestHelper.isStandInMode()) {
+            StandInServer server = StandInServer.get();
+            standInAdminApi = LoadTestHelper.getClient(ForAdminsApi.class, server.getAdminSignIn());
+            String email = IntegTestUtils.makeEmail(CoordinatedOmissionLoadTest.class);
+            SignUp signUp = new SignUp().email(email).password(PASSWORD).appId(TEST_APP_ID).consent(true);
+            standInUserId = standInAdminApi.createUser(signUp).execute().body().getId();
+            SignIn signIn = new SignIn().email(email).password(PASSWORD).appId(TEST_APP_ID);
+            usersApi = LoadTestHelper.getClient(ForConsentedUsersApi.class, signIn);
+            server.setBehavior(null, EndpointBehavior.parse(STAND_IN_BEHAVIOR));
+        } else {
+            user = TestUserHelper.createAndSignInUser(CoordinatedOmissionLoadTest.class, true);
+            usersApi = user.getClient(ForConsentedUsersApi.class);
+        }
+    }
+
+    @After
+    public void after() throws Exception {
+        if (user != null) {
+            user.signOutAndDeleteUser();
+        }
+        if (standInUserId != null) {
+            StandInServer.get().setBehavior(null, EndpointBehavior.NONE);
+            standInAdminApi.deleteUser(standInUserId).execute();
+        }
+    }
+
+    @Test
+    public void compareDriverModes() throws Exception {
+        LoadScenario<ForConsentedUsersApi> participant = LoadScenario.of("participant", ForConsentedUsersApi.class)
+                .client(usersApi)
+                .call("getUsersParticipantRecord", (api) -> api.getUsersParticipantRecord(false));
+
+        LoadDriver[] drivers = new LoadDriver[] {
+                LoadDriver.closedLoop(VIRTUAL_USERS, 0, DURATION_MILLIS),
+                LoadDriver.closedLoop(VIRTUAL_USERS, PACING_MILLIS, DURATION_MILLIS),
+                LoadDriver.openLoop(ARRIVAL_RATE, VIRTUAL_USERS * 4, DURATION_MILLIS) };
+        for (LoadDriver driver : drivers) {
+            LatencyRecorder recorder = new LatencyRecorder();
+            long elapsed = driver.run(recorder, participant);
+            recorder.log(LOG, driver.toString(), elapsed);
+        }
+    }
+}
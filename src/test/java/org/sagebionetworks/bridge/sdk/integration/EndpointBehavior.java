@@ -0,0 +1,103 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Latency and error distribution for one endpoint. Latency is a fixed floor plus an exponentially distributed
+ * jitter with the given mean, which gives the long right tail real servers show; errors are returned with the
+ * given probability and status code. ForwardingProxy can also drop connections without a response (reset
+ * rate) and trickle response bodies out at a fixed rate. Specified on the command line as
+ * "latencyMillis,jitterMillis,errorRate,status,resetRate,bodyBytesPerSecond", e.g. "20,30,0.01,503". Trailing
+ * values may be omitted; a body rate of 0 means unthrottled.
+ */
+public class EndpointBehavior {
+    public static final EndpointBehavior NONE = new EndpointBehavior(0, 0, 0d, 500);
+
+    private final long latencyMillis;
+    private final long jitterMillis;
+    private final double errorRate;
+    private final int errorStatus;
+    private final double resetRate;
+    private final long bodyBytesPerSecond;
+
+    public EndpointBehavior(long latencyMillis, long jitterMillis, double errorRate, int errorStatus) {
+        this(latencyMillis, jitterMillis, errorRate, errorStatus, 0d, 0L);
+    }
+
+    public EndpointBehavior(long latencyMillis, long jitterMillis, double errorRate, int errorStatus,
+            double resetRate, long bodyBytesPerSecond) {
+        this.latencyMillis = latencyMillis;
+        this.jitterMillis = jitterMillis;
+        this.errorRate = errorRate;
+        this.errorStatus = errorStatus;
+        this.resetRate = resetRate;
+        this.bodyBytesPerSecond = bodyBytesPerSecond;
+    }
+
+    public static EndpointBehavior parse(String spec) {
+        String[] values = spec.split(",");
+        long latencyMillis = (values.length > 0 && !values[0].trim().isEmpty()) ? Long.parseLong(values[0].trim()) : 0L;
+        long jitterMillis = (values.length > 1) ? Long.parseLong(values[1].trim()) : 0L;
+        double errorRate = (values.length > 2) ? Double.parseDouble(values[2].trim()) : 0d;
+        int errorStatus = (values.length > 3) ? Integer.parseInt(values[3].trim()) : 500;
+        double resetRate = (values.length > 4) ? Double.parseDouble(values[4].trim()) : 0d;
+        long bodyBytesPerSecond = (values.length > 5) ? Long.parseLong(values[5].trim()) : 0L;
+        return new EndpointBehavior(latencyMillis, jitterMillis, errorRate, errorStatus, resetRate,
+                bodyBytesPerSecond);
+    }
+
+    public long getLatencyMillis() {
+        return latencyMillis;
+    }
+
+    public long getJitterMillis() {
+        return jitterMillis;
+    }
+
+    public double getErrorRate() {
+        return errorRate;
+    }
+
+    public int getErrorStatus() {
+        return errorStatus;
+    }
+
+    public double getResetRate() {
+        return resetRate;
+    }
+
+    public long getBodyBytesPerSecond() {
+        return bodyBytesPerSecond;
+    }
+
+    /** Draw a latency for one request from this distribution. */
+    public long sampleLatencyMillis() {
+        if (jitterMillis <= 0) {
+            return latencyMillis;
+        }
+        double uniform = ThreadLocalRandom.current().nextDouble();
+        return latencyMillis + (long)(-Math.log(1d - uniform) * jitterMillis);
+    }
+
+    /** Decide whether one request should fail. */
+    public boolean sampleError() {
+        return errorRate > 0d && ThreadLocalRandom.current().nextDouble() < errorRate;
+    }
+
+    /** Decide whether to drop the connection without responding. */
+    public boolean sampleReset() {
+        return resetRate > 0d && ThreadLocalRandom.current().nextDouble() < resetRate;
+    }
+
+    @Override
+    public String toString() {
+        String string = latencyMillis + "ms + exp(" + jitterMillis + "ms), " + errorRate + " x HTTP " + errorStatus;
+        if (resetRate > 0d) {
+            string += ", " + resetRate + " x reset";
+        }
+        if (bodyBytesPerSecond > 0L) {
+            string += ", body at " + bodyBytesPerSecond + " B/s";
+        }
+        return string;
+    }
+}
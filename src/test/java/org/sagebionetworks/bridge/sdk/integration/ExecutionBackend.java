@@ -0,0 +1,59 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+import static org.sagebionetworks.bridge.sdk.integration.LoadTestHelper.PROPERTY_PREFIX;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * The threads load tests run their virtual users on. PLATFORM is a fixed pool of ordinary threads, which at a
+ * megabyte or so of stack each caps a run at a few hundred blocking participants. VIRTUAL starts a virtual
+ * thread per task (JDK 21+), so the blocking retrofit execute() calls and TestUser clients the suite already
+ * has can run at 10k+ concurrency unchanged. Select it with -Dloadtest.virtualThreads=true, which also
+ * activates the virtual-threads profile in the pom.
+ *
+ * Virtual threads are created reflectively, so the suite still compiles for Java 1.8.
+ */
+public enum ExecutionBackend {
+    PLATFORM,
+    VIRTUAL;
+
+    private static final Method NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR = findVirtualThreadFactoryMethod();
+
+    /** The backend selected by -Dloadtest.virtualThreads. */
+    public static ExecutionBackend get() {
+        return Boolean.getBoolean(PROPERTY_PREFIX + "virtualThreads") ? VIRTUAL : PLATFORM;
+    }
+
+    public static boolean isVirtualThreadSupported() {
+        return NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR != null;
+    }
+
+    /**
+     * An executor for running tasks on this backend. For PLATFORM this is a pool of the given size; for VIRTUAL
+     * every task gets its own thread and the caller is responsible for bounding concurrency if it needs to.
+     */
+    public ExecutorService newExecutor(int threads) {
+        if (this == PLATFORM) {
+            return Executors.newFixedThreadPool(threads);
+        }
+        if (!isVirtualThreadSupported()) {
+            throw new IllegalStateException("Virtual threads require JDK 21 or later, but this is JDK "
+                    + System.getProperty("java.version") + "; run on JDK 21+ or drop -Dloadtest.virtualThreads");
+        }
+        try {
+            return (ExecutorService)NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR.invoke(null);
+        } catch(ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Method findVirtualThreadFactoryMethod() {
+        try {
+            return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+        } catch(NoSuchMethodException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import com.google.common.collect.ImmutableSet;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.http.Header;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.client.methods.RequestBuilder;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.util.EntityUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A local reverse proxy that forwards every request to a target Bridge server and hands each completed
+ * exchange to its listeners. The suite is pointed at it by running with env=local in bridge-sdk-test.properties
+ * (the rest-client's local environment is http://localhost:9000, the default port here), so both the
+ * rest-client and the raw HTTP calls made against getHostUrl() pass through it. Calls to other hosts, such as
+ * uploads to S3 presigned URLs, do not. Tests can also build clients against getBaseUrl() directly.
+ *
+ * Faults can be injected per route (the method and the path normalized by TraceReplayer.normalize(), e.g.
+ * "GET:/v3/participants/self") or for every route, using the same EndpointBehavior as the stand-in server.
+ * Injected errors and resets are never forwarded; injected latency is added before forwarding. The fault, if
+ * any, is noted on the TraceEntry handed to listeners.
+ */
+public class ForwardingProxy {
+    private static final Logger LOG = LoggerFactory.getLogger(ForwardingProxy.class);
+
+    public static final int DEFAULT_PORT = 9000;
+
+    /** Hop-by-hop and computed headers, which are not copied across the proxy. */
+    private static final Set<String> SKIPPED_HEADERS = ImmutableSet.of("host", "content-length", "connection",
+            "transfer-encoding", "keep-alive", "proxy-connection", "upgrade", "accept-encoding");
+
+    /** Receives each exchange after the response has been sent to the client. */
+    public interface Listener {
+        void onExchange(TraceEntry entry);
+    }
+
+    private final String targetUrl;
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final CloseableHttpClient httpClient;
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    private final Map<String, EndpointBehavior> behaviors = new ConcurrentHashMap<>();
+    private volatile EndpointBehavior defaultBehavior = EndpointBehavior.NONE;
+    private final long startNanos = System.nanoTime();
+
+    public ForwardingProxy(int port, String targetUrl) throws IOException {
+        this.targetUrl = targetUrl.replaceAll("/+$", "");
+        this.httpClient = HttpClients.custom().disableRedirectHandling().disableContentCompression()
+                .disableCookieManagement().setMaxConnTotal(200).setMaxConnPerRoute(200).build();
+        this.executor = Executors.newCachedThreadPool();
+        this.server = HttpServer.create(new InetSocketAddress("localhost", port), 0);
+        this.server.createContext("/", this::handle);
+        this.server.setExecutor(executor);
+        this.server.start();
+        LOG.info("Proxying http://localhost:{} to {}", server.getAddress().getPort(), this.targetUrl);
+    }
+
+    public String getBaseUrl() {
+        return "http://localhost:" + server.getAddress().getPort();
+    }
+
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    /** Set the faults injected on a route, e.g. "GET:/v3/participants/self", or on every route if null. */
+    public void setBehavior(String route, EndpointBehavior behavior) {
+        if (route == null) {
+            defaultBehavior = behavior;
+        } else {
+            behaviors.put(route, behavior);
+        }
+    }
+
+    public void clearBehaviors() {
+        behaviors.clear();
+        defaultBehavior = EndpointBehavior.NONE;
+    }
+
+    public void stop() throws IOException {
+        server.stop(0);
+        executor.shutdownNow();
+        httpClient.close();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        long start = System.nanoTime();
+        TraceEntry entry = new TraceEntry();
+        entry.setOffsetMillis((start - startNanos) / 1000000L);
+        entry.setMethod(exchange.getRequestMethod());
+        entry.setPath(exchange.getRequestURI().getRawPath() + (exchange.getRequestURI().getRawQuery() == null
+                ? "" : "?" + exchange.getRequestURI().getRawQuery()));
+        EndpointBehavior behavior = behaviors.getOrDefault(
+                entry.getMethod() + ":" + TraceReplayer.normalize(entry.getPath()), defaultBehavior);
+        boolean headersSent = false;
+        try {
+            byte[] requestBody = readAll(exchange.getRequestBody());
+            long latency = behavior.sampleLatencyMillis();
+            if (latency > 0) {
+                Thread.sleep(latency);
+            }
+            if (behavior.sampleReset()) {
+                // Closing the exchange before sending headers drops the connection.
+                entry.setFault("reset");
+                return;
+            }
+            if (behavior.sampleError()) {
+                entry.setFault("HTTP " + behavior.getErrorStatus());
+                entry.setStatus(behavior.getErrorStatus());
+                exchange.sendResponseHeaders(behavior.getErrorStatus(), -1);
+                return;
+            }
+            RequestBuilder builder = RequestBuilder.create(entry.getMethod()).setUri(targetUrl + entry.getPath());
+            for (Map.Entry<String, List<String>> header : exchange.getRequestHeaders().entrySet()) {
+                if (!SKIPPED_HEADERS.contains(header.getKey().toLowerCase())) {
+                    for (String value : header.getValue()) {
+                        builder.addHeader(header.getKey(), value);
+                    }
+                    entry.getRequestHeaders().put(header.getKey(), header.getValue().get(0));
+                }
+            }
+            if (requestBody.length > 0) {
+                builder.setEntity(new ByteArrayEntity(requestBody));
+                entry.setRequestBody(requestBody);
+            }
+            HttpUriRequest request = builder.build();
+
+            HttpResponse response = httpClient.execute(request);
+            byte[] responseBody = (response.getEntity() == null) ? new byte[0]
+                    : EntityUtils.toByteArray(response.getEntity());
+            int status = response.getStatusLine().getStatusCode();
+            for (Header header : response.getAllHeaders()) {
+                if (!SKIPPED_HEADERS.contains(header.getName().toLowerCase())) {
+                    exchange.getResponseHeaders().add(header.getName(), header.getValue());
+                }
+            }
+            exchange.sendResponseHeaders(status, responseBody.length == 0 ? -1 : responseBody.length);
+            headersSent = true;
+            entry.setStatus(status);
+            entry.setResponseBody(responseBody);
+            if (responseBody.length > 0) {
+                try (OutputStream out = exchange.getResponseBody()) {
+                    if (behavior.getBodyBytesPerSecond() > 0) {
+                        entry.setFault("slowBody");
+                        writeSlowly(out, responseBody, behavior.getBodyBytesPerSecond());
+                    } else {
+                        out.write(responseBody);
+                    }
+                }
+            }
+        } catch(IOException e) {
+            if (headersSent) {
+                // The server answered; the client went away while the body was being written.
+                LOG.warn("Error writing response to " + entry.getMethod() + " " + entry.getPath() + ": "
+                        + e.getMessage());
+            } else {
+                LOG.error("Error forwarding " + entry.getMethod() + " " + entry.getPath(), e);
+                entry.setStatus(502);
+                exchange.sendResponseHeaders(502, -1);
+            }
+        } catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            exchange.close();
+            entry.setDurationMillis((System.nanoTime() - start) / 1000000L);
+            for (Listener listener : listeners) {
+                listener.onExchange(entry);
+            }
+        }
+    }
+
+    /** Write the body in chunks of a tenth of the rate, pausing so the average stays at the given rate. */
+    private static void writeSlowly(OutputStream out, byte[] body, long bytesPerSecond)
+            throws IOException, InterruptedException {
+        int chunk = (int)Math.max(1L, bytesPerSecond / 10);
+        for (int offset = 0; offset < body.length; offset += chunk) {
+            int length = Math.min(chunk, body.length - offset);
+            out.write(body, offset, length);
+            out.flush();
+            Thread.sleep(length * 1000L / bytesPerSecond);
+        }
+    }
+
+    static byte[] readAll(InputStream in) throws IOException {
+        try (InputStream stream = in) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int count;
+            while ((count = stream.read(buffer)) != -1) {
+                out.write(buffer, 0, count);
+            }
+            return out.toByteArray();
+        }
+    }
+}
@@ -10,6 +10,7 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
 
+import com.google.common.collect.ImmutableList;
 import org.joda.time.DateTime;
 import org.joda.time.DateTimeZone;
 import org.junit.After;
@@ -101,23 +102,24 @@ public class HealthDataEx3Test {
         DateTime createdOnStart = createdOn.minusMillis(1);
         DateTime createdOnEnd = createdOn.plusMillis(1);
 
-        // List by user.
+        // List by user, by app and by study. The three lists are independent, so they are read together. There
+        // may be more than one record in the app and the study. Filter for the one that we know about.
         HealthDataRecordEx3 expectedRecord = record;
-        Tests.retryHelper(() -> superadminsApi.getRecordsEx3ForUser(user.getUserId(), createdOnStart, createdOnEnd,
-                null, null).execute().body().getItems(),
-                recordList -> recordList.size() == 1 && expectedRecord.equals(recordList.get(0)));
-
-        // List by app. There may be more than one. Filter for the one that we know about.
-        Tests.retryHelper(() -> superadminsApi.getRecordsEx3ForCurrentApp(createdOnStart, createdOnEnd, null,
-                null).execute().body().getItems().stream().filter(r -> r.getId().equals(recordId))
-                .collect(Collectors.toList()),
-                recordList -> recordList.size() == 1 && expectedRecord.equals(recordList.get(0)));
-
-        // List by study. There may be more than one. Filter for the one that we know about.
-        Tests.retryHelper(() -> superadminsApi.getRecordsEx3ForStudy(DUMMY_STUDY_ID, createdOnStart, createdOnEnd,
-                null, null).execute().body().getItems().stream()
-                .filter(r -> r.getId().equals(recordId)).collect(Collectors.toList()),
-                recordList -> recordList.size() == 1 && expectedRecord.equals(recordList.get(0)));
+        AsyncCalls async = new AsyncCalls();
+        Tests.retryHelper(() -> {
+            List<HealthDataRecordEx3List> lists = AsyncCalls.awaitAll(ImmutableList.of(
+                    async.body(superadminsApi.getRecordsEx3ForUser(user.getUserId(), createdOnStart, createdOnEnd,
+                            null, null)),
+                    async.body(superadminsApi.getRecordsEx3ForCurrentApp(createdOnStart, createdOnEnd, null, null)),
+                    async.body(superadminsApi.getRecordsEx3ForStudy(DUMMY_STUDY_ID, createdOnStart, createdOnEnd,
+                            null, null))));
+            return ImmutableList.of(lists.get(0).getItems(),
+                    lists.get(1).getItems().stream().filter(r -> r.getId().equals(recordId))
+                            .collect(Collectors.toList()),
+                    lists.get(2).getItems().stream().filter(r -> r.getId().equals(recordId))
+                            .collect(Collectors.toList()));
+        }, recordLists -> recordLists.stream().allMatch(recordList -> recordList.size() == 1 &&
+                expectedRecord.equals(recordList.get(0))));
 
         // Delete record.
         superadminsApi.deleteRecordsEx3ForUser(user.getUserId()).execute();
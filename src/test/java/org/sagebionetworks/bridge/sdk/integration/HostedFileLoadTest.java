@@ -0,0 +1,172 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+import static org.sagebionetworks.bridge.rest.model.Role.DEVELOPER;
+import static org.sagebionetworks.bridge.sdk.integration.LoadTestHelper.intListProperty;
+import static org.sagebionetworks.bridge.sdk.integration.LoadTestHelper.intProperty;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.sagebionetworks.bridge.rest.api.ForAdminsApi;
+import org.sagebionetworks.bridge.rest.api.ForDevelopersApi;
+import org.sagebionetworks.bridge.rest.api.FilesApi;
+import org.sagebionetworks.bridge.rest.exceptions.EntityNotFoundException;
+import org.sagebionetworks.bridge.rest.model.FileMetadata;
+import org.sagebionetworks.bridge.rest.model.FileRevision;
+import org.sagebionetworks.bridge.user.TestUserHelper;
+import org.sagebionetworks.bridge.user.TestUserHelper.TestUser;
+
+/**
+ * Drives the hosted file path our apps use for study media, stage by stage, for each revision size in
+ * loadtest.fileSizesKb. loadtest.hostedFiles files each get loadtest.revisionsPerFile new revisions, all
+ * concurrently: create the revision, PUT the content to its upload URL, finish the revision (what
+ * RestUtils.uploadHostedFileToS3 does in one call in FileTest.canCrudFileRevision), then download every revision
+ * through its public download URL. Latency is reported per stage, with time to first byte recorded for downloads
+ * alongside the full download, and the upload and download stages also log their aggregate MB/s.
+ */
+@Category(LoadTest.class)
+public class HostedFileLoadTest {
+    private static final Logger LOG = LoggerFactory.getLogger(HostedFileLoadTest.class);
+
+    private static final int FILES = intProperty("hostedFiles", 10);
+    private static final int REVISIONS_PER_FILE = intProperty("revisionsPerFile", 5);
+    private static final List<Integer> FILE_SIZES_KB = intListProperty("fileSizesKb", "64,1024,16384");
+    private static final int THREADS = intProperty("threads", 8);
+    private static final String MIME_TYPE = "application/octet-stream";
+
+    private TestUser developer;
+    private final List<String> fileGuids = new ArrayList<>();
+    private final LatencyRecorder recorder = new LatencyRecorder();
+
+    @Before
+    public void before() throws Exception {
+        developer = TestUserHelper.createAndSignInUser(HostedFileLoadTest.class, true, DEVELOPER);
+    }
+
+    @After
+    public void after() throws Exception {
+        ForAdminsApi adminsApi = TestUserHelper.getSignedInAdmin().getClient(ForAdminsApi.class);
+        for (String guid : fileGuids) {
+            try {
+                adminsApi.deleteFile(guid, true).execute();
+            } catch(EntityNotFoundException e) {
+                // this is okay
+            }
+        }
+        developer.signOutAndDeleteUser();
+    }
+
+    @Test
+    public void hostedFileThroughput() throws Exception {
+        ForDevelopersApi devsApi = developer.getClient(ForDevelopersApi.class);
+        FilesApi filesApi = developer.getClient(FilesApi.class);
+        for (int i = 0; i < FILES; i++) {
+            FileMetadata metadata = new FileMetadata().name("HostedFileLoadTest " + i)
+                    .description("HostedFileLoadTest");
+            fileGuids.add(devsApi.createFile(metadata).execute().body().getGuid());
+        }
+
+        for (int sizeKb : FILE_SIZES_KB) {
+            File content = createContent(sizeKb);
+            try {
+                recorder.reset();
+                String contentMd5 = StreamingUploader.contentMd5(content);
+                List<String> downloadUrls = new ArrayList<>();
+                int revisions = FILES * REVISIONS_PER_FILE;
+                long elapsed = LoadTestHelper.runConcurrently(THREADS, revisions, (index) -> {
+                    String guid = fileGuids.get(index % FILES);
+                    FileRevision revision = new FileRevision().fileGuid(guid).name(content.getName())
+                            .mimeType(MIME_TYPE);
+                    FileRevision pending = recorder.time("createFileRevision", () -> devsApi
+                            .createFileRevision(guid, revision).execute().body());
+                    recorder.time("upload", () -> {
+                        StreamingUploader.uploadToPresignedUrl(content, pending.getUploadURL(), MIME_TYPE,
+                                contentMd5);
+                        return null;
+                    });
+                    recorder.time("finishFileRevision", () -> filesApi
+                            .finishFileRevision(guid, pending.getCreatedOn()).execute());
+                    synchronized (downloadUrls) {
+                        downloadUrls.add(pending.getDownloadURL());
+                    }
+                    return pending;
+                });
+                logRate("upload", content.length(), elapsed);
+
+                AtomicLong downloaded = new AtomicLong();
+                long downloadElapsed = LoadTestHelper.runConcurrently(THREADS, downloadUrls.size(), (index) -> {
+                    downloaded.addAndGet(download(downloadUrls.get(index)));
+                    return null;
+                });
+                LOG.info("  download: {} MB/s", String.format("%.2f",
+                        (downloaded.get() / (1024d * 1024d)) / (downloadElapsed / 1000000000d)));
+                recorder.log(LOG, String.format("%d revisions of %d KB across %d hosted files", revisions, sizeKb,
+                        FILES), elapsed + downloadElapsed);
+            } finally {
+                content.delete();
+            }
+        }
+    }
+
+    /** GET the URL, recording time to first byte and the full download. Returns the bytes read. */
+    private long download(String url) throws Exception {
+        return recorder.time("download", () -> {
+            long start = System.nanoTime();
+            HttpURLConnection connection = (HttpURLConnection)new URL(url).openConnection();
+            try {
+                int status = connection.getResponseCode();
+                if (status != 200) {
+                    throw new IOException("Download of " + url + " failed with HTTP " + status);
+                }
+                try (InputStream in = connection.getInputStream()) {
+                    byte[] buffer = new byte[StreamingUploader.CHUNK_SIZE];
+                    int read = in.read(buffer);
+                    recorder.record("download first byte", System.nanoTime() - start);
+                    long bytes = 0L;
+                    while (read != -1) {
+                        bytes += read;
+                        read = in.read(buffer);
+                    }
+                    return bytes;
+                }
+            } finally {
+                connection.disconnect();
+            }
+        });
+    }
+
+    private void logRate(String stage, long bytesPerRevision, long elapsedNanos) {
+        long count = recorder.getSummary(stage).getCount();
+        LOG.info("  {}: {} MB/s", stage, String.format("%.2f",
+                (count * bytesPerRevision / (1024d * 1024d)) / (elapsedNanos / 1000000000d)));
+    }
+
+    private static File createContent(int sizeKb) throws IOException {
+        File file = File.createTempFile("hosted-file", ".bin");
+        byte[] block = new byte[1024];
+        Random random = new Random(sizeKb);
+        try (OutputStream out = new FileOutputStream(file)) {
+            for (int i = 0; i < sizeKb; i++) {
+                random.nextBytes(block);
+                out.write(block);
+            }
+        }
+        return file;
+    }
+}
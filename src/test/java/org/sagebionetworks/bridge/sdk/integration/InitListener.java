@@ -9,6 +9,8 @@ import static org.sagebionetworks.bridge.util.IntegTestUtils.SAGE_NAME;
 import static org.sagebionetworks.bridge.util.IntegTestUtils.SHARED_APP_ID;
 import static org.sagebionetworks.bridge.util.IntegTestUtils.TEST_APP_ID;
 
+import java.io.File;
+
 import com.google.common.collect.ImmutableList;
 import org.junit.runner.Description;
 import org.junit.runner.Result;
@@ -40,12 +42,21 @@ public class InitListener extends RunListener {
     private static final Logger LOG = LoggerFactory.getLogger(InitListener.class);
 
     private boolean testRunInitialized;
+    private ForwardingProxy captureProxy;
+    private TraceFile.TraceWriter traceWriter;
 
     @Override
     public void testRunStarted(Description description) throws Exception {
         if (testRunInitialized) {
             return;
         }
+        startCapture();
+        if (LoadTestHelper.isStandInMode()) {
+            // Nothing to bootstrap: the stand-in server starts empty apart from its admin account.
+            StandInServer.get();
+            testRunInitialized = true;
+            return;
+        }
         // Must do this first to initialize the logger correctly
         TestUser admin = TestUserHelper.getSignedInAdmin();
 
@@ -145,6 +156,34 @@ public class InitListener extends RunListener {
     }
     @Override
     public void testRunFinished(Result result) throws Exception {
-        // noop
+        if (LoadTestHelper.isStandInMode()) {
+            StandInServer.stop();
+        }
+        if (captureProxy != null) {
+            captureProxy.stop();
+            traceWriter.close();
+            LOG.info("Captured {} exchanges", traceWriter.getCount());
+        }
+    }
+
+    /**
+     * With -Dloadtest.captureFile=trace.ndjson.gz and -Dloadtest.captureTarget=https://..., all traffic the
+     * suite sends to the local environment (env=local) is forwarded to the target and recorded for
+     * TraceReplayLoadTest. This has to start before anything signs in.
+     */
+    private void startCapture() throws Exception {
+        String captureFile = LoadTestHelper.stringProperty("captureFile", null);
+        if (captureFile == null) {
+            return;
+        }
+        String target = LoadTestHelper.stringProperty("captureTarget", null);
+        if (target == null) {
+            throw new IllegalStateException("loadtest.captureTarget is required to capture traffic");
+        }
+        int port = LoadTestHelper.intProperty("capturePort", ForwardingProxy.DEFAULT_PORT);
+        traceWriter = new TraceFile.TraceWriter(new File(captureFile));
+        captureProxy = new ForwardingProxy(port, target);
+        captureProxy.addListener(traceWriter);
+        LOG.info("Capturing traffic to {}", captureFile);
     }
 }
\ No newline at end of file
@@ -0,0 +1,165 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+import static org.sagebionetworks.bridge.sdk.integration.LoadTestHelper.doubleProperty;
+import static org.sagebionetworks.bridge.sdk.integration.LoadTestHelper.intListProperty;
+import static org.sagebionetworks.bridge.sdk.integration.LoadTestHelper.intProperty;
+import static org.sagebionetworks.bridge.sdk.integration.Tests.PASSWORD;
+import static org.sagebionetworks.bridge.util.IntegTestUtils.TEST_APP_ID;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.lang3.RandomStringUtils;
+import org.joda.time.LocalDate;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.sagebionetworks.bridge.rest.api.AuthenticationApi;
+import org.sagebionetworks.bridge.rest.api.ForAdminsApi;
+import org.sagebionetworks.bridge.rest.api.IntentToParticipateApi;
+import org.sagebionetworks.bridge.rest.exceptions.EntityNotFoundException;
+import org.sagebionetworks.bridge.rest.model.ConsentSignature;
+import org.sagebionetworks.bridge.rest.model.IntentToParticipate;
+import org.sagebionetworks.bridge.rest.model.Phone;
+import org.sagebionetworks.bridge.rest.model.SharingScope;
+import org.sagebionetworks.bridge.rest.model.SignIn;
+import org.sagebionetworks.bridge.rest.model.SignUp;
+import org.sagebionetworks.bridge.rest.model.UserSessionInfo;
+import org.sagebionetworks.bridge.user.TestUserHelper;
+
+/**
+ * A recruitment campaign in bursts: for each of loadtest.intentBursts, that many intents to participate are
+ * submitted at once, then loadtest.conversionRate of them sign up, as in IntentToParticipateTest (the account is
+ * created with checkForConsent, and the intent consents it when the account first signs in). Reports intent
+ * submission throughput, the latency of each conversion from account creation to a consented signInV4 session,
+ * and the backlog of intents that were never converted, which grows with every burst.
+ *
+ * Run it against the stand-in server (-Dloadtest.standIn=true), where intents alternate between phone and email
+ * identities and the SMS and email sends are only counted; their latency can be set with e.g.
+ * -Dloadtest.standIn.behavior.SEND:sms=200,100. Against a live server only email identities are used (the test
+ * app has a single test phone number), and unconverted intents are left to expire on the server.
+ */
+@Category(LoadTest.class)
+public class IntentConversionLoadTest {
+    private static final Logger LOG = LoggerFactory.getLogger(IntentConversionLoadTest.class);
+
+    private static final List<Integer> BURSTS = intListProperty("intentBursts", "100,500");
+    private static final double CONVERSION_RATE = doubleProperty("conversionRate", 0.5);
+    private static final int THREADS = intProperty("threads", 16);
+    private static final ConsentSignature SIGNATURE = new ConsentSignature().name("Test User")
+            .scope(SharingScope.ALL_QUALIFIED_RESEARCHERS).birthdate(LocalDate.parse("1980-01-01"));
+
+    private ForAdminsApi adminApi;
+    private IntentToParticipateApi intentApi;
+    private AuthenticationApi authApi;
+    private String emailPrefix;
+    private final List<String> userIds = new ArrayList<>();
+    private final LatencyRecorder recorder = new LatencyRecorder();
+
+    @Before
+    public void before() throws Exception {
+        if (LoadTestHelper.isStandInMode()) {
+            adminApi = LoadTestHelper.getClient(ForAdminsApi.class, StandInServer.get().getAdminSignIn());
+        } else {
+            adminApi = TestUserHelper.getSignedInAdmin().getClient(ForAdminsApi.class);
+        }
+        intentApi = LoadTestHelper.getUnauthenticatedClient(IntentToParticipateApi.class);
+        authApi = LoadTestHelper.getUnauthenticatedClient(AuthenticationApi.class);
+        emailPrefix = "bridge-testing+IntentConversionLoadTest-" + RandomStringUtils.randomAlphabetic(4) + "-";
+    }
+
+    @After
+    public void after() throws Exception {
+        for (String userId : userIds) {
+            try {
+                adminApi.deleteUser(userId).execute();
+            } catch(EntityNotFoundException e) {
+                // this is okay
+            }
+        }
+    }
+
+    @Test
+    public void convertIntentBursts() throws Exception {
+        long backlog = 0L;
+        for (int b = 0; b < BURSTS.size(); b++) {
+            int burst = BURSTS.get(b);
+            int burstIndex = b;
+            recorder.reset();
+
+            long elapsed = LoadTestHelper.runConcurrently(THREADS, burst, (index) -> {
+                IntentToParticipate intent = new IntentToParticipate().appId(TEST_APP_ID).subpopGuid(TEST_APP_ID)
+                        .osName("iPhone").consentSignature(SIGNATURE);
+                if (usesPhone(index)) {
+                    intent.phone(phone(burstIndex, index));
+                } else {
+                    intent.email(email(burstIndex, index));
+                }
+                return recorder.time("submitIntentToParticipate", () -> intentApi
+                        .submitIntentToParticipate(intent).execute());
+            });
+            int submitted = recorder.getSummary("submitIntentToParticipate").getCount();
+            LOG.info("  {} intents submitted, {} intents/s", submitted,
+                    String.format("%.1f", submitted / (elapsed / 1000000000d)));
+
+            int conversions = (int)Math.round(burst * CONVERSION_RATE);
+            elapsed += LoadTestHelper.runConcurrently(THREADS, conversions, (index) -> {
+                convert(burstIndex, index);
+                return null;
+            });
+            backlog += submitted - recorder.getSummary("conversion").getCount();
+            if (LoadTestHelper.isStandInMode()) {
+                StandInServer server = StandInServer.get();
+                LOG.info("  backlog: {} unconverted intents ({} pending on the stand-in server, {} SMS and {} "
+                        + "email sent)", backlog, server.getPendingIntentCount(), server.getSentMessageCount("sms"),
+                        server.getSentMessageCount("email"));
+            } else {
+                LOG.info("  backlog: {} unconverted intents", backlog);
+            }
+            recorder.log(LOG, String.format("Burst of %d intents, %d converted", burst, conversions), elapsed);
+        }
+    }
+
+    /**
+     * Create the account for the intent and sign in, recording the whole conversion when the session comes back
+     * consented.
+     */
+    private void convert(int burstIndex, int index) throws Exception {
+        SignUp signUp = new SignUp().appId(TEST_APP_ID).password(PASSWORD).checkForConsent(true);
+        SignIn signIn = new SignIn().appId(TEST_APP_ID).password(PASSWORD);
+        if (usesPhone(index)) {
+            signUp.phone(phone(burstIndex, index));
+            signIn.phone(phone(burstIndex, index));
+        } else {
+            signUp.email(email(burstIndex, index));
+            signIn.email(email(burstIndex, index));
+        }
+        long start = System.nanoTime();
+        String userId = recorder.time("createUser", () -> adminApi.createUser(signUp).execute().body().getId());
+        synchronized (userIds) {
+            userIds.add(userId);
+        }
+        UserSessionInfo session = recorder.time("signInV4", () -> authApi.signInV4(signIn).execute().body());
+        if (Boolean.TRUE.equals(session.isConsented())) {
+            recorder.record("conversion", System.nanoTime() - start);
+        } else {
+            recorder.recordError("conversion", "NotConsented");
+        }
+    }
+
+    private static boolean usesPhone(int index) {
+        return LoadTestHelper.isStandInMode() && index % 2 == 0;
+    }
+
+    private String email(int burstIndex, int index) {
+        return emailPrefix + burstIndex + "-" + index + "@sagebase.org";
+    }
+
+    private static Phone phone(int burstIndex, int index) {
+        return new Phone().number(String.format("+1206%07d", burstIndex * 1000000 + index)).regionCode("US");
+    }
+}
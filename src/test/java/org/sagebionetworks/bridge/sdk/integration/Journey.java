@@ -0,0 +1,152 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A participant journey declared as a sequence of steps, for running many virtual participants at once:
+ *
+ * <pre>
+ * Journey.named("dayOne")
+ *         .step("createAccount", steps::createAccount)
+ *         .thinkTime(2000, 10000)
+ *         .step("consent", 0.9, steps::consent).requires(ParticipantJourneys.USER)
+ *         .step("getTimeline", steps::getTimeline).requires(ParticipantJourneys.STUDY_ID);
+ * </pre>
+ *
+ * A step runs with the given probability (1 by default). Data flows between steps through each participant's
+ * JourneyContext, and a step that requires a value an earlier step didn't produce (because it was skipped or
+ * failed) is skipped too, and counted as "skipped" under the step's name. Think times are drawn uniformly
+ * between their bounds and aren't part of any step's latency. Step latencies are recorded as journey/step,
+ * and the whole journey, think times included, as journey.
+ */
+public class Journey {
+    private static final Logger LOG = LoggerFactory.getLogger(Journey.class);
+
+    private final String name;
+    private final List<Element> elements = new ArrayList<>();
+    private long rampMillis;
+
+    private Journey(String name) {
+        this.name = name;
+    }
+
+    public static Journey named(String name) {
+        return new Journey(name);
+    }
+
+    public Journey step(String stepName, Step step) {
+        return step(stepName, 1d, step);
+    }
+
+    public Journey step(String stepName, double probability, Step step) {
+        elements.add(new Element(name + "/" + stepName, probability, step, 0L, 0L));
+        return this;
+    }
+
+    /** Values the most recently added step needs from earlier steps. */
+    public Journey requires(String... keys) {
+        if (elements.isEmpty() || elements.get(elements.size() - 1).step == null) {
+            throw new IllegalStateException("requires() must follow a step");
+        }
+        elements.get(elements.size() - 1).requires.addAll(Arrays.asList(keys));
+        return this;
+    }
+
+    public Journey thinkTime(long minMillis, long maxMillis) {
+        elements.add(new Element(null, 1d, null, minMillis, maxMillis));
+        return this;
+    }
+
+    /** Spread participant arrivals evenly over this period, rather than starting them all at once. */
+    public Journey rampUp(long rampMillis) {
+        this.rampMillis = rampMillis;
+        return this;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Run the journey for the given number of participants, at most concurrency at a time. Returns every
+     * participant's context, so the caller can clean up what the steps created.
+     */
+    public List<JourneyContext> run(int participants, int concurrency, LatencyRecorder recorder)
+            throws Exception {
+        List<JourneyContext> contexts = Collections.synchronizedList(new ArrayList<>());
+        long start = System.nanoTime();
+        long elapsed = LoadTestHelper.runConcurrently(concurrency, participants, (index) -> {
+            long arrival = start + TimeUnit.MILLISECONDS.toNanos(rampMillis * index / participants);
+            long wait = arrival - System.nanoTime();
+            if (wait > 0) {
+                TimeUnit.NANOSECONDS.sleep(wait);
+            }
+            JourneyContext context = new JourneyContext(index);
+            contexts.add(context);
+            runOne(context, recorder);
+            return null;
+        });
+        recorder.log(LOG, "Journey " + name + ", " + participants + " participants", elapsed);
+        return contexts;
+    }
+
+    void runOne(JourneyContext context, LatencyRecorder recorder) throws Exception {
+        long start = System.nanoTime();
+        for (Element element : elements) {
+            if (element.step == null) {
+                long range = element.maxMillis - element.minMillis;
+                Thread.sleep(element.minMillis + (long)(context.getRandom().nextDouble() * Math.max(range, 0L)));
+                continue;
+            }
+            if (element.probability < 1d && context.getRandom().nextDouble() >= element.probability) {
+                continue;
+            }
+            boolean satisfied = true;
+            for (String key : element.requires) {
+                satisfied &= context.has(key);
+            }
+            if (!satisfied) {
+                recorder.recordError(element.name, "skipped");
+                continue;
+            }
+            try {
+                recorder.time(element.name, () -> {
+                    element.step.run(context);
+                    return null;
+                });
+            } catch(Exception e) {
+                // Recorded by the recorder; later steps that depend on this one will be skipped.
+            }
+        }
+        recorder.record(name, System.nanoTime() - start);
+    }
+
+    @FunctionalInterface
+    public interface Step {
+        void run(JourneyContext context) throws Exception;
+    }
+
+    private static class Element {
+        private final String name;
+        private final double probability;
+        private final Step step;
+        private final long minMillis;
+        private final long maxMillis;
+        private final List<String> requires = new ArrayList<>();
+
+        Element(String name, double probability, Step step, long minMillis, long maxMillis) {
+            this.name = name;
+            this.probability = probability;
+            this.step = step;
+            this.minMillis = minMillis;
+            this.maxMillis = maxMillis;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.sagebionetworks.bridge.user.TestUserHelper.TestUser;
+
+/**
+ * The state of one virtual participant as it goes through a Journey. Steps read what earlier steps produced
+ * (the participant's TestUser, session, study) and put what they produce for later steps.
+ */
+public class JourneyContext {
+    private final int index;
+    private final Random random;
+    private final Map<String, Object> values = new HashMap<>();
+
+    JourneyContext(int index) {
+        this.index = index;
+        this.random = new Random(index);
+    }
+
+    /** The index of this participant in the run, 0 to participants-1. */
+    public int getIndex() {
+        return index;
+    }
+
+    public Random getRandom() {
+        return random;
+    }
+
+    public boolean has(String key) {
+        return values.get(key) != null;
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T get(String key) {
+        return (T)values.get(key);
+    }
+
+    public void put(String key, Object value) {
+        values.put(key, value);
+    }
+
+    /** A client for the participant, signed in with the session from the steps so far. */
+    public <T> T getClient(Class<T> service) {
+        TestUser user = get(ParticipantJourneys.USER);
+        if (user == null) {
+            throw new IllegalStateException("Participant " + index + " has no account yet");
+        }
+        return user.getClient(service);
+    }
+}
@@ -0,0 +1,185 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+
+/**
+ * Records the latency of named operations from any number of threads, and summarizes them as percentiles.
+ * Failed calls are counted by exception type rather than being included in the latency distribution.
+ * Samples back-filled by recordCorrected() count towards the percentiles but not towards the number of
+ * completed calls or the throughput.
+ */
+public class LatencyRecorder {
+
+    private final ConcurrentMap<String, Queue<Long>> latencies = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, AtomicInteger> completions = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, ConcurrentMap<String, AtomicInteger>> errors = new ConcurrentHashMap<>();
+
+    /**
+     * Execute the call and record its latency under the given operation name. Exceptions are recorded
+     * and rethrown.
+     */
+    public <T> T time(String operation, Callable<T> call) throws Exception {
+        long start = System.nanoTime();
+        try {
+            T result = call.call();
+            record(operation, System.nanoTime() - start);
+            return result;
+        } catch(Exception e) {
+            recordError(operation, e);
+            throw e;
+        }
+    }
+
+    public void record(String operation, long nanos) {
+        completions.computeIfAbsent(operation, (key) -> new AtomicInteger()).incrementAndGet();
+        addSample(operation, nanos);
+    }
+
+    /**
+     * Record a latency from a caller that meant to issue a request every expectedIntervalNanos (HdrHistogram's
+     * coordinated omission correction). A call that took longer than the interval held back the calls that
+     * should have been issued while it ran, so those are back-filled with the latencies they would have seen.
+     * Only the call itself counts as completed.
+     */
+    public void recordCorrected(String operation, long nanos, long expectedIntervalNanos) {
+        record(operation, nanos);
+        if (expectedIntervalNanos <= 0) {
+            return;
+        }
+        for (long missed = nanos - expectedIntervalNanos; missed >= expectedIntervalNanos;
+                missed -= expectedIntervalNanos) {
+            addSample(operation, missed);
+        }
+    }
+
+    private void addSample(String operation, long nanos) {
+        latencies.computeIfAbsent(operation, (key) -> new ConcurrentLinkedQueue<>()).add(nanos);
+    }
+
+    public void recordError(String operation, Exception e) {
+        recordError(operation, e.getClass().getSimpleName());
+    }
+
+    /** Record a failure that isn't an exception, e.g. an unexpected status code. */
+    public void recordError(String operation, String errorType) {
+        errors.computeIfAbsent(operation, (key) -> new ConcurrentHashMap<>())
+            .computeIfAbsent(errorType, (key) -> new AtomicInteger()).incrementAndGet();
+    }
+
+    public void reset() {
+        latencies.clear();
+        completions.clear();
+        errors.clear();
+    }
+
+    public Summary getSummary(String operation) {
+        List<Long> values = new ArrayList<>(latencies.getOrDefault(operation, new ConcurrentLinkedQueue<>()));
+        Collections.sort(values);
+        Map<String,Integer> errorCounts = new TreeMap<>();
+        for (Map.Entry<String, AtomicInteger> entry : errors.getOrDefault(operation, new ConcurrentHashMap<>()).entrySet()) {
+            errorCounts.put(entry.getKey(), entry.getValue().get());
+        }
+        AtomicInteger count = completions.get(operation);
+        return new Summary(operation, (count == null) ? 0 : count.get(), values, errorCounts);
+    }
+
+    /**
+     * Log a line for every recorded operation (in alphabetical order). Throughput is calculated against
+     * the elapsed wall clock time of the run that produced the measurements.
+     */
+    public void log(Logger logger, String title, long elapsedNanos) {
+        logger.info("{} ({} ms elapsed)", title, TimeUnit.NANOSECONDS.toMillis(elapsedNanos));
+        List<String> operations = new ArrayList<>(latencies.keySet());
+        for (String operation : errors.keySet()) {
+            if (!operations.contains(operation)) {
+                operations.add(operation);
+            }
+        }
+        Collections.sort(operations);
+        for (String operation : operations) {
+            logger.info("  {}", getSummary(operation).toString(elapsedNanos));
+        }
+    }
+
+    public static class Summary {
+        private final String operation;
+        private final int count;
+        private final List<Long> sortedNanos;
+        private final Map<String,Integer> errors;
+
+        Summary(String operation, int count, List<Long> sortedNanos, Map<String,Integer> errors) {
+            this.operation = operation;
+            this.count = count;
+            this.sortedNanos = sortedNanos;
+            this.errors = errors;
+        }
+        public String getOperation() {
+            return operation;
+        }
+        /** Completed calls, not counting back-filled samples. */
+        public int getCount() {
+            return count;
+        }
+        /** Samples in the latency distribution, including any back-filled by recordCorrected(). */
+        public int getSampleCount() {
+            return sortedNanos.size();
+        }
+        public int getErrorCount() {
+            int count = 0;
+            for (Integer value : errors.values()) {
+                count += value;
+            }
+            return count;
+        }
+        public Map<String,Integer> getErrors() {
+            return errors;
+        }
+        /** The latency at the given percentile (0-100), in milliseconds. */
+        public double getPercentileMillis(double percentile) {
+            if (sortedNanos.isEmpty()) {
+                return 0d;
+            }
+            int index = (int)Math.ceil((percentile / 100d) * sortedNanos.size()) - 1;
+            index = Math.max(0, Math.min(sortedNanos.size()-1, index));
+            return sortedNanos.get(index) / 1000000d;
+        }
+        public double getMeanMillis() {
+            if (sortedNanos.isEmpty()) {
+                return 0d;
+            }
+            long total = 0L;
+            for (Long value : sortedNanos) {
+                total += value;
+            }
+            return (total / (double)sortedNanos.size()) / 1000000d;
+        }
+        /** Successful operations per second over the elapsed time. */
+        public double getThroughput(long elapsedNanos) {
+            if (elapsedNanos <= 0) {
+                return 0d;
+            }
+            return count / (elapsedNanos / 1000000000d);
+        }
+        public String toString(long elapsedNanos) {
+            String corrected = (getSampleCount() > count) ? String.format(" (%d corrected samples)",
+                    getSampleCount()) : "";
+            return String.format("%s: n=%d%s, errors=%d %s, mean=%.1fms, p50=%.1fms, p95=%.1fms, p99=%.1fms, "
+                    + "max=%.1fms, throughput=%.1f/s", operation, getCount(), corrected, getErrorCount(), errors,
+                    getMeanMillis(), getPercentileMillis(50), getPercentileMillis(95), getPercentileMillis(99),
+                    getPercentileMillis(100), getThroughput(elapsedNanos));
+        }
+    }
+}
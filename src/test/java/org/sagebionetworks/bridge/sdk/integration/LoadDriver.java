@@ -0,0 +1,202 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import retrofit2.Response;
+
+/**
+ * Runs LoadScenarios for a fixed duration, in one of two modes:
+ *
+ * Closed loop: a fixed number of virtual users, each bound to one scenario, issue one call after another. With
+ * a pacing interval each user means to start a call every interval; a call that overruns it delays the calls
+ * behind it, and those are back-filled with LatencyRecorder.recordCorrected so a slow server can't hide its
+ * tail by slowing the load down (coordinated omission). Without pacing the latencies are uncorrected, as in
+ * a plain polling loop.
+ *
+ * Open loop: calls arrive at a fixed rate regardless of how fast the server answers, with at most
+ * maxConcurrency in flight. Latency is measured from the time the call was scheduled to arrive, so time
+ * spent queued behind slow calls counts. The time spent in the call itself is also recorded as
+ * "scenario/call (service)".
+ *
+ * Failed calls are counted by exception type, and unsuccessful responses as "HTTP status". Results go to the
+ * given LatencyRecorder, whose log() reports throughput, percentiles and errors per scenario call. Virtual
+ * users and calls run on the selected ExecutionBackend.
+ */
+public class LoadDriver {
+    private static final Logger LOG = LoggerFactory.getLogger(LoadDriver.class);
+
+    private final boolean openLoop;
+    private final int concurrency;
+    private final long intervalNanos;
+    private final long durationNanos;
+
+    private LoadDriver(boolean openLoop, int concurrency, long intervalNanos, long durationMillis) {
+        this.openLoop = openLoop;
+        this.concurrency = concurrency;
+        this.intervalNanos = intervalNanos;
+        this.durationNanos = TimeUnit.MILLISECONDS.toNanos(durationMillis);
+    }
+
+    /** Fixed virtual users, each starting a call every pacingMillis (0 to issue calls back to back). */
+    public static LoadDriver closedLoop(int virtualUsers, long pacingMillis, long durationMillis) {
+        return new LoadDriver(false, virtualUsers, TimeUnit.MILLISECONDS.toNanos(pacingMillis), durationMillis);
+    }
+
+    /** A fixed arrival rate, with at most maxConcurrency calls in flight. */
+    public static LoadDriver openLoop(double ratePerSecond, int maxConcurrency, long durationMillis) {
+        return new LoadDriver(true, maxConcurrency, (long)(1000000000d / ratePerSecond), durationMillis);
+    }
+
+    /** Run the scenarios, returning the elapsed time of the run in nanoseconds. */
+    public long run(LatencyRecorder recorder, LoadScenario<?>... scenarios) throws Exception {
+        List<LoadScenario<?>> weighted = new ArrayList<>();
+        for (LoadScenario<?> scenario : scenarios) {
+            for (int i = 0; i < scenario.getWeight(); i++) {
+                weighted.add(scenario);
+            }
+        }
+        LOG.info("Running {} for {} ms", this, TimeUnit.NANOSECONDS.toMillis(durationNanos));
+        return openLoop ? runOpenLoop(recorder, weighted) : runClosedLoop(recorder, weighted);
+    }
+
+    private long runClosedLoop(LatencyRecorder recorder, List<LoadScenario<?>> weighted) throws Exception {
+        ExecutorService executor = ExecutionBackend.get().newExecutor(concurrency);
+        try {
+            List<Future<?>> futures = new ArrayList<>(concurrency);
+            long start = System.nanoTime();
+            long deadline = start + durationNanos;
+            for (int i = 0; i < concurrency; i++) {
+                LoadScenario<?> scenario = weighted.get(i % weighted.size());
+                int slot = i;
+                futures.add(executor.submit(() -> {
+                    virtualUser(recorder, scenario, slot, start, deadline);
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            return System.nanoTime() - start;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private <A> void virtualUser(LatencyRecorder recorder, LoadScenario<A> scenario, int slot, long start,
+            long deadline) throws Exception {
+        A client = scenario.createClient(slot);
+        Random random = new Random(slot);
+        long nextStart = start;
+        while (System.nanoTime() < deadline) {
+            LoadScenario.Operation<A> operation = scenario.pickOperation(random);
+            long callStart = System.nanoTime();
+            if (execute(recorder, operation, client)) {
+                recorder.recordCorrected(operation.name, System.nanoTime() - callStart, intervalNanos);
+            }
+            if (intervalNanos > 0) {
+                nextStart += intervalNanos;
+                long now = System.nanoTime();
+                if (nextStart > now) {
+                    LockSupport.parkNanos(nextStart - now);
+                } else {
+                    // Behind schedule; the missed starts were back-filled by recordCorrected.
+                    nextStart = now;
+                }
+            }
+        }
+    }
+
+    private long runOpenLoop(LatencyRecorder recorder, List<LoadScenario<?>> weighted) throws Exception {
+        // Each call in flight holds a worker slot, which bounds concurrency on either backend and lets each
+        // slot keep its own clients.
+        BlockingQueue<Integer> slots = new ArrayBlockingQueue<>(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            slots.add(i);
+        }
+        Map<String, Object> clients = new ConcurrentHashMap<>();
+        ExecutorService executor = ExecutionBackend.get().newExecutor(concurrency);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            long start = System.nanoTime();
+            long deadline = start + durationNanos;
+            for (long arrival = start; arrival < deadline; arrival += intervalNanos) {
+                long now = System.nanoTime();
+                if (arrival > now) {
+                    LockSupport.parkNanos(arrival - now);
+                }
+                LoadScenario<?> scenario = weighted.get(ThreadLocalRandom.current().nextInt(weighted.size()));
+                long scheduled = arrival;
+                futures.add(executor.submit(() -> {
+                    Integer slot = slots.take();
+                    try {
+                        arrival(recorder, scenario, slot, clients, scheduled);
+                    } finally {
+                        slots.add(slot);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            return System.nanoTime() - start;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <A> void arrival(LatencyRecorder recorder, LoadScenario<A> scenario, int slot,
+            Map<String, Object> clients, long scheduled) throws Exception {
+        String key = scenario.getName() + ":" + slot;
+        A client = (A)clients.get(key);
+        if (client == null) {
+            client = scenario.createClient(slot);
+            clients.put(key, client);
+        }
+        LoadScenario.Operation<A> operation = scenario.pickOperation(ThreadLocalRandom.current());
+        long callStart = System.nanoTime();
+        if (execute(recorder, operation, client)) {
+            long end = System.nanoTime();
+            recorder.record(operation.name, end - scheduled);
+            recorder.record(operation.name + " (service)", end - callStart);
+        }
+    }
+
+    /** Execute one call, recording any failure. Returns true if the call succeeded. */
+    private static <A> boolean execute(LatencyRecorder recorder, LoadScenario.Operation<A> operation, A client) {
+        try {
+            Response<?> response = operation.call.apply(client).execute();
+            if (!response.isSuccessful()) {
+                recorder.recordError(operation.name, "HTTP " + response.code());
+                return false;
+            }
+            return true;
+        } catch(Exception e) {
+            recorder.recordError(operation.name, e);
+            return false;
+        }
+    }
+
+    @Override
+    public String toString() {
+        if (openLoop) {
+            return String.format("open loop at %.1f/s, max %d in flight", 1000000000d / intervalNanos, concurrency);
+        }
+        return String.format("closed loop with %d virtual users, %s", concurrency, (intervalNanos > 0)
+                ? "pacing " + TimeUnit.NANOSECONDS.toMillis(intervalNanos) + " ms" : "no pacing (uncorrected)");
+    }
+}
@@ -0,0 +1,112 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import retrofit2.Call;
+
+/**
+ * A named mix of calls against one of the generated *Api clients, for LoadDriver to run. Each call is a
+ * function from the client to the retrofit Call to execute, and is picked in proportion to its weight:
+ *
+ * <pre>
+ * LoadScenario.of("participant", ForConsentedUsersApi.class)
+ *         .clients((slot) -&gt; users.get(slot).getClient(ForConsentedUsersApi.class))
+ *         .call("getSelf", 3, (api) -&gt; api.getUsersParticipantRecord(false))
+ *         .call("getActivityEvents", (api) -&gt; api.getActivityEvents());
+ * </pre>
+ *
+ * The client factory receives the index of the virtual user (closed loop) or worker (open loop) the client
+ * is for, so each can sign in as a different participant. Latencies are recorded as scenario/call.
+ */
+public class LoadScenario<A> {
+    private final String name;
+    private final Class<A> apiClass;
+    private final List<Operation<A>> operations = new ArrayList<>();
+    private ThrowingFunction<Integer, A> clientFactory;
+    private int weight = 1;
+    private int totalOperationWeight;
+
+    private LoadScenario(String name, Class<A> apiClass) {
+        this.name = name;
+        this.apiClass = apiClass;
+    }
+
+    public static <A> LoadScenario<A> of(String name, Class<A> apiClass) {
+        return new LoadScenario<>(name, apiClass);
+    }
+
+    /** Create a client for each virtual user or worker. */
+    public LoadScenario<A> clients(ThrowingFunction<Integer, A> clientFactory) {
+        this.clientFactory = clientFactory;
+        return this;
+    }
+
+    /** Share one client between all virtual users. */
+    public LoadScenario<A> client(A client) {
+        this.clientFactory = (slot) -> client;
+        return this;
+    }
+
+    public LoadScenario<A> call(String callName, ThrowingFunction<A, Call<?>> call) {
+        return call(callName, 1, call);
+    }
+
+    public LoadScenario<A> call(String callName, int callWeight, ThrowingFunction<A, Call<?>> call) {
+        operations.add(new Operation<>(name + "/" + callName, callWeight, call));
+        totalOperationWeight += callWeight;
+        return this;
+    }
+
+    /** The share of virtual users or arrivals this scenario gets when a driver runs several. Defaults to 1. */
+    public LoadScenario<A> weight(int weight) {
+        this.weight = weight;
+        return this;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Class<A> getApiClass() {
+        return apiClass;
+    }
+
+    public int getWeight() {
+        return weight;
+    }
+
+    A createClient(int slot) throws Exception {
+        if (clientFactory == null) {
+            throw new IllegalStateException("Scenario " + name + " has no client factory");
+        }
+        return clientFactory.apply(slot);
+    }
+
+    Operation<A> pickOperation(Random random) {
+        if (operations.isEmpty()) {
+            throw new IllegalStateException("Scenario " + name + " has no calls");
+        }
+        int value = random.nextInt(totalOperationWeight);
+        for (Operation<A> operation : operations) {
+            value -= operation.weight;
+            if (value < 0) {
+                return operation;
+            }
+        }
+        return operations.get(operations.size() - 1);
+    }
+
+    static class Operation<A> {
+        final String name;
+        final int weight;
+        final ThrowingFunction<A, Call<?>> call;
+
+        Operation(String name, int weight, ThrowingFunction<A, Call<?>> call) {
+            this.name = name;
+            this.weight = weight;
+            this.call = call;
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+/**
+ * JUnit category for load tests and benchmarks. These are excluded from the normal integration test run
+ * and are executed with -DjunitCategory=loadTests. Sizes are configured through "loadtest.*" system
+ * properties (see LoadTestHelper).
+ */
+public interface LoadTest {
+
+}
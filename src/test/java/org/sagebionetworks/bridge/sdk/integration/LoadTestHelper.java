@@ -0,0 +1,165 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+import static org.sagebionetworks.bridge.util.IntegTestUtils.TEST_APP_ID;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.sagebionetworks.bridge.rest.ClientManager;
+import org.sagebionetworks.bridge.rest.model.SignIn;
+import org.sagebionetworks.bridge.user.TestUserHelper;
+import org.sagebionetworks.bridge.user.TestUserHelper.TestUser;
+
+/**
+ * Configuration and execution helpers shared by the load tests. All sizes can be overridden on the
+ * command line, e.g. -Dloadtest.appConfigCount=200 -Dloadtest.concurrency=1,8,32.
+ */
+public class LoadTestHelper {
+    private static final Logger LOG = LoggerFactory.getLogger(LoadTestHelper.class);
+
+    public static final String PROPERTY_PREFIX = "loadtest.";
+
+    public static int intProperty(String name, int defaultValue) {
+        return Integer.getInteger(PROPERTY_PREFIX + name, defaultValue);
+    }
+
+    public static double doubleProperty(String name, double defaultValue) {
+        String value = System.getProperty(PROPERTY_PREFIX + name);
+        return (value == null) ? defaultValue : Double.parseDouble(value);
+    }
+
+    public static String stringProperty(String name, String defaultValue) {
+        return System.getProperty(PROPERTY_PREFIX + name, defaultValue);
+    }
+
+    /** True when the tests should run against the in-process StandInServer rather than a live server. */
+    public static boolean isStandInMode() {
+        return Boolean.getBoolean(PROPERTY_PREFIX + "standIn");
+    }
+
+    /** A client signed in with the given credentials, against the stand-in server when it is selected. */
+    public static <T> T getClient(Class<T> service, SignIn signIn) throws Exception {
+        if (isStandInMode()) {
+            return StandInServer.get().getClient(service, signIn);
+        }
+        return new ClientManager.Builder().withSignIn(signIn).build().getClient(service);
+    }
+
+    /** A client for public endpoints with no session, against the stand-in server when it is selected. */
+    public static <T> T getUnauthenticatedClient(Class<T> service) throws Exception {
+        if (isStandInMode()) {
+            return StandInServer.get().getUnauthenticatedClient(service);
+        }
+        ClientManager manager = TestUserHelper.getSignedInAdmin().getClientManager();
+        return Tests.getUnauthenticatedClientProvider(manager, TEST_APP_ID).getClient(service);
+    }
+
+    public static List<Integer> intListProperty(String name, String defaultValue) {
+        String value = System.getProperty(PROPERTY_PREFIX + name, defaultValue);
+        List<Integer> list = new ArrayList<>();
+        for (String oneValue : value.split(",")) {
+            if (!oneValue.trim().isEmpty()) {
+                list.add(Integer.parseInt(oneValue.trim()));
+            }
+        }
+        return list;
+    }
+
+    /**
+     * Run the task the given number of times, at most the given number at once, on the ExecutionBackend selected
+     * for the run (a fixed pool of platform threads, or a virtual thread per task). The task receives the
+     * index of the iteration (0 to tasks-1). Failures do not stop the run; tasks should record them through a
+     * LatencyRecorder, and the number that failed is logged as a warning with the first failure. Returns the
+     * elapsed time of the run in nanoseconds.
+     */
+    public static long runConcurrently(int threads, int tasks, ThrowingFunction<Integer, ?> task) throws Exception {
+        Failures failures = new Failures();
+        long elapsed = execute(threads, tasks, task, failures, false);
+        if (failures.count.get() > 0) {
+            LOG.warn("{} of {} tasks failed, first failure: {}", failures.count.get(), tasks, failures.first.get());
+        }
+        return elapsed;
+    }
+
+    /**
+     * Create a test fixture concurrently, as with runConcurrently(), but stop starting tasks at the first failure
+     * and then throw, so a load test never measures against a partial fixture. Each result is added to the list as
+     * soon as it is created, so cleanup sees everything that was created even when seeding fails.
+     */
+    public static <T> void seedConcurrently(int threads, int tasks, List<T> into, ThrowingFunction<Integer, T> task)
+            throws Exception {
+        Failures failures = new Failures();
+        execute(threads, tasks, (index) -> {
+            T result = task.apply(index);
+            synchronized (into) {
+                into.add(result);
+            }
+            return result;
+        }, failures, true);
+        if (failures.count.get() > 0) {
+            throw new IllegalStateException("Seeding failed (" + failures.count.get() + " of " + tasks
+                    + " tasks)", failures.first.get());
+        }
+    }
+
+    /** Create and sign in consented participants with seedConcurrently(), adding them to the list. */
+    public static void createParticipants(Class<?> cls, int count, int threads, List<TestUser> into)
+            throws Exception {
+        seedConcurrently(threads, count, into, (index) -> TestUserHelper.createAndSignInUser(cls, true));
+    }
+
+    private static long execute(int threads, int tasks, ThrowingFunction<Integer, ?> task, Failures failures,
+            boolean stopOnFailure) throws Exception {
+        ExecutionBackend backend = ExecutionBackend.get();
+        ExecutorService executor = backend.newExecutor(threads);
+        Semaphore permits = new Semaphore(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>(tasks);
+            long start = System.nanoTime();
+            for (int i = 0; i < tasks; i++) {
+                final int index = i;
+                futures.add(executor.submit(() -> {
+                    // A pool already bounds concurrency; one thread per task needs the permits.
+                    boolean bounded = (backend == ExecutionBackend.VIRTUAL);
+                    if (bounded) {
+                        permits.acquireUninterruptibly();
+                    }
+                    try {
+                        if (!stopOnFailure || failures.count.get() == 0) {
+                            task.apply(index);
+                        }
+                    } catch(Exception e) {
+                        failures.count.incrementAndGet();
+                        failures.first.compareAndSet(null, e);
+                        LOG.debug("Task " + index + " failed: " + e.getMessage());
+                    } finally {
+                        if (bounded) {
+                            permits.release();
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            return System.nanoTime() - start;
+        } finally {
+            executor.shutdown();
+            executor.awaitTermination(1, TimeUnit.MINUTES);
+        }
+    }
+
+    private static class Failures {
+        private final AtomicInteger count = new AtomicInteger();
+        private final AtomicReference<Exception> first = new AtomicReference<>();
+    }
+}
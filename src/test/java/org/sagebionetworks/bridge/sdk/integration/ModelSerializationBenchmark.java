@@ -0,0 +1,74 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.sagebionetworks.bridge.json.DefaultObjectMapper;
+import org.sagebionetworks.bridge.rest.RestUtils;
+import org.sagebionetworks.bridge.sdk.integration.BenchmarkModels.ModelType;
+
+/**
+ * Client-side JSON cost of the rest-client models: Gson serialization and deserialization (what every API
+ * call does), RestUtils.toType from an untyped Gson map (how the tests read record data), and Jackson's
+ * DefaultObjectMapper.readTree of the same payload. Run with -Dbenchmark=ModelSerialization; the profile
+ * adds JMH's GC profiler, whose gc.alloc.rate.norm is the allocation per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ModelSerializationBenchmark {
+
+    @Param({"STUDY_PARTICIPANT", "SURVEY", "SCHEDULE2", "HEALTH_DATA_RECORD", "TIMELINE"})
+    public ModelType modelType;
+
+    @Param({"1", "20"})
+    public int scale;
+
+    private Object model;
+    private String json;
+    private Map<?, ?> untyped;
+
+    @Setup
+    public void setup() throws Exception {
+        model = BenchmarkModels.create(modelType, scale);
+        json = RestUtils.GSON.toJson(model);
+        untyped = RestUtils.GSON.fromJson(json, Map.class);
+    }
+
+    @Benchmark
+    public String gsonSerialize() {
+        return RestUtils.GSON.toJson(model);
+    }
+
+    @Benchmark
+    public Object gsonDeserialize() {
+        return RestUtils.GSON.fromJson(json, modelType.getModelClass());
+    }
+
+    @Benchmark
+    public Object restUtilsToType() {
+        return RestUtils.toType(untyped, modelType.getModelClass());
+    }
+
+    @Benchmark
+    public JsonNode jacksonReadTree() throws IOException {
+        return DefaultObjectMapper.INSTANCE.readTree(json);
+    }
+}
@@ -0,0 +1,222 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+import static org.sagebionetworks.bridge.sdk.integration.LoadTestHelper.intProperty;
+import static org.sagebionetworks.bridge.sdk.integration.Tests.PASSWORD;
+import static org.sagebionetworks.bridge.util.IntegTestUtils.TEST_APP_ID;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.sagebionetworks.bridge.rest.api.ForAdminsApi;
+import org.sagebionetworks.bridge.rest.api.ForConsentedUsersApi;
+import org.sagebionetworks.bridge.rest.api.NotificationsApi;
+import org.sagebionetworks.bridge.rest.exceptions.BridgeSDKException;
+import org.sagebionetworks.bridge.rest.model.Criteria;
+import org.sagebionetworks.bridge.rest.model.NotificationProtocol;
+import org.sagebionetworks.bridge.rest.model.NotificationRegistration;
+import org.sagebionetworks.bridge.rest.model.NotificationTopic;
+import org.sagebionetworks.bridge.rest.model.Phone;
+import org.sagebionetworks.bridge.rest.model.Role;
+import org.sagebionetworks.bridge.rest.model.SignIn;
+import org.sagebionetworks.bridge.rest.model.SignUp;
+import org.sagebionetworks.bridge.rest.model.StudyParticipant;
+import org.sagebionetworks.bridge.rest.model.SubscriptionRequest;
+import org.sagebionetworks.bridge.rest.model.SubscriptionStatus;
+import org.sagebionetworks.bridge.user.TestUserHelper;
+import org.sagebionetworks.bridge.user.TestUserHelper.TestUser;
+
+/**
+ * Creates many notification topics (half managed by data group criteria, half manual), registers many
+ * SMS participants, and measures how long it takes for getTopicSubscriptions to reflect a registration,
+ * a manual subscription, and a data group change that flips the criteria-managed topics. Convergence is
+ * polled at a short interval rather than through Tests.retryHelper, whose one second sleep would swamp
+ * the measurement. With -Dloadtest.standIn=true this runs against the stand-in server, whose convergence
+ * delay is set with -Dloadtest.standIn.convergenceMillis.
+ *
+ * Participants are given distinct fictional phone numbers, of which there are 500, so loadtest.participantCount
+ * can be at most 500. The numbers are released when the accounts are deleted after the run, but two runs
+ * against the same app at the same time can pick the same ones.
+ */
+@Category(LoadTest.class)
+public class NotificationTopicLoadTest {
+    private static final Logger LOG = LoggerFactory.getLogger(NotificationTopicLoadTest.class);
+
+    private static final int TOPIC_COUNT = intProperty("topicCount", 20);
+    private static final int PARTICIPANT_COUNT = intProperty("participantCount", 20);
+    private static final int THREADS = intProperty("threads", 8);
+    private static final int POLL_INTERVAL_MILLIS = intProperty("pollIntervalMillis", 100);
+    private static final int CONVERGENCE_TIMEOUT_MILLIS = intProperty("convergenceTimeoutMillis", 30000);
+
+    private static final String GROUP_1 = "sdk-int-1";
+    private static final String GROUP_2 = "sdk-int-2";
+    // Fictional numbers (555-0100 through 555-0199) in a handful of area codes.
+    private static final List<String> AREA_CODES = ImmutableList.of("206", "253", "360", "425", "509");
+    private static final int PHONE_SLOTS = AREA_CODES.size() * 100;
+
+    private TestUser developer;
+    private ForAdminsApi adminApi;
+    private NotificationsApi notificationsApi;
+    private final List<String> group1TopicGuids = new ArrayList<>();
+    private final List<String> group2TopicGuids = new ArrayList<>();
+    private final List<String> manualTopicGuids = new ArrayList<>();
+    private final List<String> userIds = new ArrayList<>();
+    private final LatencyRecorder recorder = new LatencyRecorder();
+
+    @Before
+    public void before() throws Exception {
+        if (LoadTestHelper.isStandInMode()) {
+            SignIn signIn = StandInServer.get().getAdminSignIn();
+            adminApi = LoadTestHelper.getClient(ForAdminsApi.class, signIn);
+            notificationsApi = LoadTestHelper.getClient(NotificationsApi.class, signIn);
+            return;
+        }
+        adminApi = TestUserHelper.getSignedInAdmin().getClient(ForAdminsApi.class);
+        developer = TestUserHelper.createAndSignInUser(NotificationTopicLoadTest.class, false, Role.DEVELOPER);
+        notificationsApi = developer.getClient(NotificationsApi.class);
+    }
+
+    @After
+    public void after() throws Exception {
+        for (String userId : userIds) {
+            try {
+                adminApi.deleteUser(userId).execute();
+            } catch(BridgeSDKException e) {
+                LOG.error("Error deleting user " + userId + ": " + e.getMessage(), e);
+            }
+        }
+        List<String> topicGuids = new ArrayList<>(group1TopicGuids);
+        topicGuids.addAll(group2TopicGuids);
+        topicGuids.addAll(manualTopicGuids);
+        for (String topicGuid : topicGuids) {
+            adminApi.deleteNotificationTopic(topicGuid, true).execute();
+        }
+        if (developer != null) {
+            developer.signOutAndDeleteUser();
+        }
+    }
+
+    @Test
+    public void subscriptionFanOut() throws Exception {
+        // Every participant needs its own number; reusing one would make sign-up conflicts part of the measurement.
+        if (PARTICIPANT_COUNT > PHONE_SLOTS) {
+            throw new IllegalStateException("loadtest.participantCount can be at most " + PHONE_SLOTS
+                    + ", the number of fictional phone numbers available");
+        }
+        String prefix = Tests.randomIdentifier(NotificationTopicLoadTest.class);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < TOPIC_COUNT; i++) {
+            NotificationTopic topic = new NotificationTopic().name(prefix + "-" + i).shortName("topic-" + i);
+            List<String> guids = manualTopicGuids;
+            if (i % 4 == 0) {
+                topic.setCriteria(new Criteria().addAllOfGroupsItem(GROUP_1));
+                guids = group1TopicGuids;
+            } else if (i % 4 == 1) {
+                topic.setCriteria(new Criteria().addAllOfGroupsItem(GROUP_2));
+                guids = group2TopicGuids;
+            }
+            guids.add(recorder.time("createNotificationTopic",
+                    () -> notificationsApi.createNotificationTopic(topic).execute().body().getGuid()));
+        }
+        recorder.time("getNotificationTopics", () -> notificationsApi.getNotificationTopics(false).execute());
+        recorder.log(LOG, "Created " + TOPIC_COUNT + " topics", System.nanoTime() - start);
+
+        recorder.reset();
+        // A random start that leaves room for every participant, so numbers never wrap around.
+        int offset = (int)(Math.random() * (PHONE_SLOTS - PARTICIPANT_COUNT + 1));
+        long elapsed = LoadTestHelper.runConcurrently(THREADS, PARTICIPANT_COUNT, (index) -> {
+            runParticipant(phoneFor(index, offset));
+            return null;
+        });
+        recorder.log(LOG, "Subscription fan-out, " + PARTICIPANT_COUNT + " participants x " + TOPIC_COUNT
+                + " topics", elapsed);
+
+        int updates = recorder.getSummary("subscribeToTopics").getCount()
+                + recorder.getSummary("updateDataGroups").getCount();
+        LOG.info("  subscription update throughput={}/s", String.format("%.1f", updates / (elapsed / 1000000000d)));
+    }
+
+    private void runParticipant(Phone phone) throws Exception {
+        SignUp signUp = new SignUp().phone(phone).password(PASSWORD).appId(TEST_APP_ID).consent(true)
+                .dataGroups(ImmutableList.of(GROUP_1));
+        String userId = adminApi.createUser(signUp).execute().body().getId();
+        synchronized (userIds) {
+            userIds.add(userId);
+        }
+        SignIn signIn = new SignIn().phone(phone).password(PASSWORD).appId(TEST_APP_ID);
+        ForConsentedUsersApi api = LoadTestHelper.getClient(ForConsentedUsersApi.class, signIn);
+
+        NotificationRegistration registration = new NotificationRegistration()
+                .protocol(NotificationProtocol.SMS).endpoint(phone.getNumber());
+        String registrationGuid = recorder.time("createNotificationRegistration",
+                () -> api.createNotificationRegistration(registration).execute().body().getGuid());
+        timeConvergence("converge/autoSubscribe", () -> subscriptions(api, registrationGuid),
+                map -> allSubscribed(map, group1TopicGuids, true) && allSubscribed(map, group2TopicGuids, false));
+
+        SubscriptionRequest request = new SubscriptionRequest().topicGuids(new ArrayList<>(manualTopicGuids));
+        recorder.time("subscribeToTopics", () -> api.subscribeToTopics(registrationGuid, request).execute());
+        timeConvergence("converge/manualSubscribe", () -> subscriptions(api, registrationGuid),
+                map -> allSubscribed(map, manualTopicGuids, true));
+
+        StudyParticipant participant = api.getUsersParticipantRecord(false).execute().body();
+        participant.setDataGroups(ImmutableList.of(GROUP_2));
+        recorder.time("updateDataGroups", () -> api.updateUsersParticipantRecord(participant).execute());
+        timeConvergence("converge/dataGroupChange", () -> subscriptions(api, registrationGuid),
+                map -> allSubscribed(map, group1TopicGuids, false) && allSubscribed(map, group2TopicGuids, true)
+                        && allSubscribed(map, manualTopicGuids, true));
+
+        recorder.time("deleteNotificationRegistration",
+                () -> api.deleteNotificationRegistration(registrationGuid).execute());
+    }
+
+    private Map<String, Boolean> subscriptions(ForConsentedUsersApi api, String registrationGuid) throws Exception {
+        return recorder.time("getTopicSubscriptions", () -> api.getTopicSubscriptions(registrationGuid).execute()
+                .body().getItems().stream()
+                .collect(Collectors.toMap(SubscriptionStatus::getTopicGuid, SubscriptionStatus::isSubscribed)));
+    }
+
+    private static boolean allSubscribed(Map<String, Boolean> map, List<String> topicGuids, boolean subscribed) {
+        for (String topicGuid : topicGuids) {
+            if (!Boolean.valueOf(subscribed).equals(map.get(topicGuid))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Poll until the validation passes, recording the time from the first poll to the successful one. A
+     * timeout is recorded as an error.
+     */
+    private void timeConvergence(String operation, Callable<Map<String, Boolean>> poll,
+            Predicate<Map<String, Boolean>> converged) throws Exception {
+        long start = System.nanoTime();
+        long deadline = start + CONVERGENCE_TIMEOUT_MILLIS * 1000000L;
+        while (System.nanoTime() < deadline) {
+            if (converged.test(poll.call())) {
+                recorder.record(operation, System.nanoTime() - start);
+                return;
+            }
+            Thread.sleep(POLL_INTERVAL_MILLIS);
+        }
+        recorder.recordError(operation, new IllegalStateException("Did not converge"));
+    }
+
+    private static Phone phoneFor(int index, int offset) {
+        int slot = index + offset;
+        String areaCode = AREA_CODES.get(slot / 100);
+        return new Phone().number(String.format("+1%s55501%02d", areaCode, slot % 100)).regionCode("US");
+    }
+}
@@ -0,0 +1,256 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+import static org.sagebionetworks.bridge.rest.model.Role.STUDY_COORDINATOR;
+import static org.sagebionetworks.bridge.sdk.integration.LoadTestHelper.intListProperty;
+import static org.sagebionetworks.bridge.sdk.integration.LoadTestHelper.intProperty;
+import static org.sagebionetworks.bridge.sdk.integration.Tests.PASSWORD;
+import static org.sagebionetworks.bridge.util.IntegTestUtils.TEST_APP_ID;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.sagebionetworks.bridge.rest.ClientManager;
+import org.sagebionetworks.bridge.rest.api.ForAdminsApi;
+import org.sagebionetworks.bridge.rest.api.ForStudyCoordinatorsApi;
+import org.sagebionetworks.bridge.rest.api.OrganizationsApi;
+import org.sagebionetworks.bridge.rest.api.StudiesApi;
+import org.sagebionetworks.bridge.rest.exceptions.BridgeSDKException;
+import org.sagebionetworks.bridge.rest.exceptions.EntityNotFoundException;
+import org.sagebionetworks.bridge.rest.exceptions.UnauthorizedException;
+import org.sagebionetworks.bridge.rest.model.AccountSummarySearch;
+import org.sagebionetworks.bridge.rest.model.Enrollment;
+import org.sagebionetworks.bridge.rest.model.Organization;
+import org.sagebionetworks.bridge.rest.model.SignIn;
+import org.sagebionetworks.bridge.rest.model.SignUp;
+import org.sagebionetworks.bridge.rest.model.Study;
+import org.sagebionetworks.bridge.user.TestUserHelper;
+import org.sagebionetworks.bridge.user.TestUserHelper.TestUser;
+import org.sagebionetworks.bridge.util.IntegTestUtils;
+
+/**
+ * Grows a graph of organizations, members, studies and sponsorships, and measures membership listing,
+ * sponsored study listing, sponsorship changes and study-scoped participant search at each size. The same
+ * participant search is issued by an admin (who bypasses organization checks), a coordinator in a sponsoring
+ * organization, and a coordinator in a non-sponsoring organization (who is denied), so the cost of the
+ * organization-based permission check can be read off the difference.
+ */
+@Category(LoadTest.class)
+public class OrganizationLoadTest {
+    private static final Logger LOG = LoggerFactory.getLogger(OrganizationLoadTest.class);
+
+    private static final List<Integer> ORG_COUNTS = intListProperty("orgCounts", "20,100");
+    private static final int MEMBERS_PER_ORG = intProperty("membersPerOrg", 3);
+    private static final int STUDY_COUNT = intProperty("studyCount", 10);
+    private static final int SPONSORSHIPS_PER_ORG = intProperty("sponsorshipsPerOrg", 3);
+    private static final int PARTICIPANTS_PER_STUDY = intProperty("participantsPerStudy", 5);
+    private static final int READS_PER_STEP = intProperty("readsPerStep", 100);
+    private static final int THREADS = intProperty("threads", 8);
+
+    private TestUser admin;
+    private String prefix;
+    private final List<String> studyIds = new ArrayList<>();
+    private final List<String> orgIds = new ArrayList<>();
+    private final List<String> userIdsToDelete = new ArrayList<>();
+    private final Map<String, List<String>> sponsorships = new ConcurrentHashMap<>();
+    private final Map<String, SignIn> coordinatorSignIns = new ConcurrentHashMap<>();
+    private final Map<String, ForStudyCoordinatorsApi> coordinatorApis = new ConcurrentHashMap<>();
+    private final LatencyRecorder recorder = new LatencyRecorder();
+
+    @Before
+    public void before() throws Exception {
+        admin = TestUserHelper.getSignedInAdmin();
+        prefix = Tests.randomIdentifier(OrganizationLoadTest.class);
+    }
+
+    @After
+    public void after() throws Exception {
+        ForAdminsApi adminsApi = admin.getClient(ForAdminsApi.class);
+        for (String userId : userIdsToDelete) {
+            try {
+                adminsApi.deleteUser(userId).execute();
+            } catch (BridgeSDKException e) {
+                LOG.error("Error deleting user " + userId + ": " + e.getMessage(), e);
+            }
+        }
+        OrganizationsApi orgsApi = admin.getClient(OrganizationsApi.class);
+        for (String orgId : orgIds) {
+            try {
+                for (String studyId : sponsorships.getOrDefault(orgId, ImmutableList.of())) {
+                    orgsApi.removeStudySponsorship(orgId, studyId).execute();
+                }
+                orgsApi.deleteOrganization(orgId).execute();
+            } catch (BridgeSDKException e) {
+                LOG.error("Error deleting organization " + orgId + ": " + e.getMessage(), e);
+            }
+        }
+        for (String studyId : studyIds) {
+            try {
+                adminsApi.deleteStudy(studyId, true).execute();
+            } catch (EntityNotFoundException e) {
+            }
+        }
+    }
+
+    @Test
+    public void organizationGraphScale() throws Exception {
+        seedStudies();
+
+        for (int orgCount : ORG_COUNTS) {
+            recorder.reset();
+            int start = orgIds.size();
+            List<String> newOrgIds = new ArrayList<>();
+            for (int i = start; i < orgCount; i++) {
+                newOrgIds.add(prefix + "-org-" + i);
+            }
+            orgIds.addAll(newOrgIds);
+            long seedStart = System.nanoTime();
+            LoadTestHelper.seedConcurrently(THREADS, newOrgIds.size(), new ArrayList<>(), (index) -> {
+                seedOrganization(newOrgIds.get(index), start + index);
+                return newOrgIds.get(index);
+            });
+            recorder.log(LOG, "Seeding " + newOrgIds.size() + " organizations (total " + orgIds.size() + ")",
+                    System.nanoTime() - seedStart);
+
+            recorder.reset();
+            long elapsed = LoadTestHelper.runConcurrently(THREADS, READS_PER_STEP, (index) -> {
+                measureReads(index);
+                return null;
+            });
+            recorder.log(LOG, "Organization reads, " + orgIds.size() + " organizations, " + STUDY_COUNT
+                    + " studies", elapsed);
+            logPermissionCheckCost();
+
+            // Sponsorship changes get a phase of their own: while a sponsorship is off, the sponsoring
+            // coordinator's participant search is denied, which would skew the reads above.
+            recorder.reset();
+            elapsed = LoadTestHelper.runConcurrently(THREADS, orgIds.size(), (index) -> {
+                toggleSponsorship(orgIds.get(index));
+                return null;
+            });
+            recorder.log(LOG, "Sponsorship changes, " + orgIds.size() + " organizations", elapsed);
+        }
+    }
+
+    private void seedStudies() throws Exception {
+        StudiesApi studiesApi = admin.getClient(StudiesApi.class);
+        ForAdminsApi adminsApi = admin.getClient(ForAdminsApi.class);
+        for (int i = 0; i < STUDY_COUNT; i++) {
+            String studyId = prefix + "-study-" + i;
+            studiesApi.createStudy(new Study().identifier(studyId).name(studyId)).execute();
+            studyIds.add(studyId);
+        }
+        int participants = STUDY_COUNT * PARTICIPANTS_PER_STUDY;
+        LoadTestHelper.seedConcurrently(THREADS, participants, userIdsToDelete, (index) -> {
+            SignUp signUp = new SignUp().email(IntegTestUtils.makeEmail(OrganizationLoadTest.class))
+                    .password(PASSWORD).appId(TEST_APP_ID).consent(true);
+            return adminsApi.createUser(signUp).execute().body().getId();
+        });
+        List<String> userIds = new ArrayList<>(userIdsToDelete);
+        LoadTestHelper.seedConcurrently(THREADS, participants, new ArrayList<>(), (index) -> {
+            String studyId = studyIds.get(index % studyIds.size());
+            return studiesApi.enrollParticipant(studyId, new Enrollment().userId(userIds.get(index))).execute();
+        });
+    }
+
+    private void seedOrganization(String orgId, int orgIndex) throws Exception {
+        OrganizationsApi orgsApi = admin.getClient(OrganizationsApi.class);
+        ForAdminsApi adminsApi = admin.getClient(ForAdminsApi.class);
+
+        Organization org = new Organization().identifier(orgId).name(orgId);
+        recorder.time("createOrganization", () -> orgsApi.createOrganization(org).execute());
+
+        List<String> sponsored = new ArrayList<>();
+        for (int i = 0; i < Math.min(SPONSORSHIPS_PER_ORG, studyIds.size()); i++) {
+            String studyId = studyIds.get((orgIndex + i) % studyIds.size());
+            recorder.time("addStudySponsorship", () -> orgsApi.addStudySponsorship(orgId, studyId).execute());
+            sponsored.add(studyId);
+        }
+        sponsorships.put(orgId, sponsored);
+
+        for (int i = 0; i < MEMBERS_PER_ORG; i++) {
+            String email = IntegTestUtils.makeEmail(OrganizationLoadTest.class);
+            SignUp signUp = new SignUp().email(email).password(PASSWORD).appId(TEST_APP_ID)
+                    .consent(false).roles(ImmutableList.of(STUDY_COORDINATOR));
+            String userId = adminsApi.createUser(signUp).execute().body().getId();
+            synchronized (userIdsToDelete) {
+                userIdsToDelete.add(userId);
+            }
+            recorder.time("addMember", () -> orgsApi.addMember(orgId, userId).execute());
+            if (i == 0) {
+                coordinatorSignIns.put(orgId, new SignIn().email(email).password(PASSWORD).appId(TEST_APP_ID));
+            }
+        }
+    }
+
+    private void measureReads(int index) throws Exception {
+        OrganizationsApi orgsApi = admin.getClient(OrganizationsApi.class);
+        String orgId = orgIds.get(index % orgIds.size());
+        List<String> sponsored = sponsorships.get(orgId);
+
+        recorder.time("getOrganizations", () -> orgsApi.getOrganizations(0, 50).execute());
+        recorder.time("getMembers", () -> orgsApi.getMembers(orgId, new AccountSummarySearch()).execute());
+        recorder.time("getSponsoredStudies", () -> orgsApi.getSponsoredStudies(orgId, null, null).execute());
+
+        if (sponsored.isEmpty()) {
+            return;
+        }
+        String sponsoredStudyId = sponsored.get(0);
+        String unsponsoredStudyId = null;
+        for (String studyId : studyIds) {
+            if (!sponsored.contains(studyId)) {
+                unsponsoredStudyId = studyId;
+                break;
+            }
+        }
+        ForStudyCoordinatorsApi adminCoordApi = admin.getClient(ForStudyCoordinatorsApi.class);
+        recorder.time("getStudyParticipants/admin", () -> adminCoordApi
+                .getStudyParticipants(sponsoredStudyId, new AccountSummarySearch()).execute());
+
+        ForStudyCoordinatorsApi coordApi = coordinatorApis.computeIfAbsent(orgId, (key) -> new ClientManager.Builder()
+                .withSignIn(coordinatorSignIns.get(key)).build().getClient(ForStudyCoordinatorsApi.class));
+        recorder.time("getStudyParticipants/sponsoringCoordinator", () -> coordApi
+                .getStudyParticipants(sponsoredStudyId, new AccountSummarySearch()).execute());
+
+        if (unsponsoredStudyId != null) {
+            String studyId = unsponsoredStudyId;
+            long start = System.nanoTime();
+            try {
+                coordApi.getStudyParticipants(studyId, new AccountSummarySearch()).execute();
+                recorder.recordError("getStudyParticipants/nonSponsoringCoordinator", new IllegalStateException());
+            } catch(UnauthorizedException | EntityNotFoundException e) {
+                recorder.record("getStudyParticipants/nonSponsoringCoordinator", System.nanoTime() - start);
+            }
+        }
+    }
+
+    /** Toggle one of the organization's sponsorships off and on again, so the graph is left as it was. */
+    private void toggleSponsorship(String orgId) throws Exception {
+        List<String> sponsored = sponsorships.get(orgId);
+        if (sponsored.isEmpty()) {
+            return;
+        }
+        OrganizationsApi orgsApi = admin.getClient(OrganizationsApi.class);
+        String studyId = sponsored.get(0);
+        recorder.time("removeStudySponsorship", () -> orgsApi.removeStudySponsorship(orgId, studyId).execute());
+        recorder.time("addStudySponsorship", () -> orgsApi.addStudySponsorship(orgId, studyId).execute());
+    }
+
+    private void logPermissionCheckCost() {
+        double adminP50 = recorder.getSummary("getStudyParticipants/admin").getPercentileMillis(50);
+        double sponsorP50 = recorder.getSummary("getStudyParticipants/sponsoringCoordinator").getPercentileMillis(50);
+        double deniedP50 = recorder.getSummary("getStudyParticipants/nonSponsoringCoordinator").getPercentileMillis(50);
+        LOG.info("  organization check overhead on participant search: p50 +{}ms over admin "
+                + "(denied request p50 {}ms)", String.format("%.1f", sponsorP50 - adminP50),
+                String.format("%.1f", deniedP50));
+    }
+}
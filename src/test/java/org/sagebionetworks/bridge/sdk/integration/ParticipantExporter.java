@@ -0,0 +1,221 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.google.common.collect.ImmutableList;
+import com.google.gson.JsonObject;
+import org.joda.time.DateTime;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.sagebionetworks.bridge.rest.RestUtils;
+import org.sagebionetworks.bridge.rest.api.ForWorkersApi;
+import org.sagebionetworks.bridge.rest.model.AccountSummary;
+import org.sagebionetworks.bridge.rest.model.AccountSummaryList;
+import org.sagebionetworks.bridge.rest.model.ActivityEventList;
+import org.sagebionetworks.bridge.rest.model.ForwardCursorScheduledActivityList;
+import org.sagebionetworks.bridge.rest.model.ScheduledActivity;
+import org.sagebionetworks.bridge.rest.model.StudyParticipant;
+
+/**
+ * Exports every participant in an app through the worker API, the way our nightly workers read an app, as
+ * newline-delimited JSON: one object per participant with "participant" (the StudyParticipant, as from
+ * WorkerApiTest.retrieveUsers), "activityEvents" and, for each task ID given, that task's activity history in
+ * "taskHistory". Account summaries are paged with getParticipantsForApp while at most parallelism participants
+ * are fetched at once (on the selected ExecutionBackend); the next page isn't read until there is room for it,
+ * and each record is written as soon as it is complete, so memory use is bounded by the page size and
+ * parallelism rather than the size of the app. Records are written in completion order.
+ *
+ * A participant that can't be read is counted and logged, and the export carries on. Latency of each worker
+ * call is kept in the given LatencyRecorder.
+ */
+public class ParticipantExporter {
+    private static final Logger LOG = LoggerFactory.getLogger(ParticipantExporter.class);
+
+    private final ForWorkersApi workersApi;
+    private final String appId;
+    private int pageSize = 100;
+    private int parallelism = 8;
+    private String emailFilter;
+    private boolean activityEvents = true;
+    private List<String> taskIds = ImmutableList.of();
+    private DateTime scheduledOnStart;
+    private DateTime scheduledOnEnd;
+    private LatencyRecorder recorder = new LatencyRecorder();
+
+    private ParticipantExporter(ForWorkersApi workersApi, String appId) {
+        this.workersApi = workersApi;
+        this.appId = appId;
+    }
+
+    public static ParticipantExporter forApp(ForWorkersApi workersApi, String appId) {
+        return new ParticipantExporter(workersApi, appId);
+    }
+
+    public ParticipantExporter pageSize(int pageSize) {
+        this.pageSize = pageSize;
+        return this;
+    }
+
+    public ParticipantExporter parallelism(int parallelism) {
+        this.parallelism = parallelism;
+        return this;
+    }
+
+    /** Only export accounts whose email matches, as with AccountSummarySearch.emailFilter. */
+    public ParticipantExporter emailFilter(String emailFilter) {
+        this.emailFilter = emailFilter;
+        return this;
+    }
+
+    public ParticipantExporter activityEvents(boolean activityEvents) {
+        this.activityEvents = activityEvents;
+        return this;
+    }
+
+    /** Also export the history of these tasks for activities scheduled in the given window. */
+    public ParticipantExporter taskHistory(List<String> taskIds, DateTime scheduledOnStart, DateTime scheduledOnEnd) {
+        this.taskIds = ImmutableList.copyOf(taskIds);
+        this.scheduledOnStart = scheduledOnStart;
+        this.scheduledOnEnd = scheduledOnEnd;
+        return this;
+    }
+
+    public ParticipantExporter recorder(LatencyRecorder recorder) {
+        this.recorder = recorder;
+        return this;
+    }
+
+    /** Export to the file, replacing it. */
+    public Result export(File file) throws Exception {
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), UTF_8))) {
+            return export(writer);
+        }
+    }
+
+    /** Export to the writer, which is not closed. */
+    public Result export(Writer writer) throws Exception {
+        AtomicInteger exported = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        Semaphore permits = new Semaphore(parallelism);
+        ExecutorService executor = ExecutionBackend.get().newExecutor(parallelism);
+        long start = System.nanoTime();
+        try {
+            int offsetBy = 0;
+            while (true) {
+                int offset = offsetBy;
+                AccountSummaryList page = recorder.time("getParticipantsForApp", () -> workersApi
+                        .getParticipantsForApp(appId, offset, pageSize, emailFilter, null, null, null)
+                        .execute().body());
+                for (AccountSummary summary : page.getItems()) {
+                    permits.acquire();
+                    executor.execute(() -> {
+                        try {
+                            String line = RestUtils.GSON.toJson(exportParticipant(summary.getId()));
+                            synchronized (writer) {
+                                writer.write(line);
+                                writer.write('\n');
+                            }
+                            exported.incrementAndGet();
+                        } catch(Exception e) {
+                            failed.incrementAndGet();
+                            LOG.warn("Could not export participant " + summary.getId() + ": " + e.getMessage());
+                        } finally {
+                            permits.release();
+                        }
+                    });
+                }
+                offsetBy += page.getItems().size();
+                if (page.getItems().isEmpty() || page.getTotal() == null || offsetBy >= page.getTotal()) {
+                    break;
+                }
+            }
+            // Wait for the participants still in flight.
+            permits.acquire(parallelism);
+            permits.release(parallelism);
+        } finally {
+            executor.shutdown();
+            executor.awaitTermination(1, TimeUnit.MINUTES);
+        }
+        writer.flush();
+        Result result = new Result(exported.get(), failed.get(), System.nanoTime() - start);
+        LOG.info("Exported {} from app {}", result, appId);
+        return result;
+    }
+
+    private JsonObject exportParticipant(String userId) throws Exception {
+        JsonObject record = new JsonObject();
+        StudyParticipant participant = recorder.time("getParticipantByIdForApp", () -> workersApi
+                .getParticipantByIdForApp(appId, userId, true).execute().body());
+        record.add("participant", RestUtils.GSON.toJsonTree(participant));
+        if (activityEvents) {
+            ActivityEventList events = recorder.time("getActivityEventsForParticipantAndApp", () -> workersApi
+                    .getActivityEventsForParticipantAndApp(appId, userId).execute().body());
+            record.add("activityEvents", RestUtils.GSON.toJsonTree(events.getItems()));
+        }
+        if (!taskIds.isEmpty()) {
+            JsonObject taskHistory = new JsonObject();
+            for (String taskId : taskIds) {
+                taskHistory.add(taskId, RestUtils.GSON.toJsonTree(taskHistory(userId, taskId)));
+            }
+            record.add("taskHistory", taskHistory);
+        }
+        return record;
+    }
+
+    private List<ScheduledActivity> taskHistory(String userId, String taskId) throws Exception {
+        List<ScheduledActivity> activities = new ArrayList<>();
+        String offsetKey = null;
+        do {
+            String key = offsetKey;
+            ForwardCursorScheduledActivityList list = recorder.time("getParticipantTaskHistoryForApp",
+                    () -> workersApi.getParticipantTaskHistoryForApp(appId, userId, taskId, scheduledOnStart,
+                            scheduledOnEnd, key, pageSize).execute().body());
+            activities.addAll(list.getItems());
+            offsetKey = list.getNextPageOffsetKey();
+        } while (offsetKey != null);
+        return activities;
+    }
+
+    public static class Result {
+        private final int exported;
+        private final int failed;
+        private final long elapsedNanos;
+
+        Result(int exported, int failed, long elapsedNanos) {
+            this.exported = exported;
+            this.failed = failed;
+            this.elapsedNanos = elapsedNanos;
+        }
+        public int getExported() {
+            return exported;
+        }
+        public int getFailed() {
+            return failed;
+        }
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+        public double getParticipantsPerSecond() {
+            return exported / (elapsedNanos / 1000000000d);
+        }
+        @Override
+        public String toString() {
+            return String.format("%d participants (%d failed) in %d ms, %.1f participants/s", exported, failed,
+                    TimeUnit.NANOSECONDS.toMillis(elapsedNanos), getParticipantsPerSecond());
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+import static org.sagebionetworks.bridge.rest.model.SharingScope.SPONSORS_AND_PARTNERS;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.util.List;
+
+import com.google.common.collect.ImmutableMap;
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.joda.time.LocalDate;
+
+import org.sagebionetworks.bridge.rest.api.ForConsentedUsersApi;
+import org.sagebionetworks.bridge.rest.api.UsersApi;
+import org.sagebionetworks.bridge.rest.exceptions.EntityNotFoundException;
+import org.sagebionetworks.bridge.rest.model.ConsentSignature;
+import org.sagebionetworks.bridge.rest.model.CustomActivityEventRequest;
+import org.sagebionetworks.bridge.rest.model.ReportData;
+import org.sagebionetworks.bridge.rest.model.UserSessionInfo;
+import org.sagebionetworks.bridge.user.TestUserHelper;
+import org.sagebionetworks.bridge.user.TestUserHelper.TestUser;
+
+/**
+ * Journey steps for a participant, each doing what the corresponding integration test does: account creation
+ * (SignUpTest, through TestUserHelper), consent and re-sign-in (ConsentTest), activity events
+ * (ActivityEventTest), the study timeline (Schedule2Test.getTimelineForStudyParticipant), an encrypted upload
+ * (UploadTest) and a self-reported participant report (ReportTest). Steps share these keys in the
+ * JourneyContext:
+ *
+ * USER, the TestUser; SESSION, the latest UserSessionInfo; CONSENTED, set once consent is signed; STUDY_ID,
+ * the first study the session reports membership in.
+ */
+public class ParticipantJourneys {
+    public static final String USER = "user";
+    public static final String SESSION = "session";
+    public static final String CONSENTED = "consented";
+    public static final String STUDY_ID = "studyId";
+
+    private final Class<?> testClass;
+    private final String customEventId;
+    private final String reportId;
+    private volatile UploadArchiveEncryptor encryptor;
+
+    /**
+     * @param testClass the class the accounts are created for, as with TestUserHelper
+     * @param customEventId a custom event the app declares, for createCustomEvent
+     * @param reportId the participant report identifier saveReport writes to
+     */
+    public ParticipantJourneys(Class<?> testClass, String customEventId, String reportId) {
+        this.testClass = testClass;
+        this.customEventId = customEventId;
+        this.reportId = reportId;
+    }
+
+    /** Create and sign in an unconsented account. */
+    public void createAccount(JourneyContext context) throws Exception {
+        TestUser user = TestUserHelper.createAndSignInUser(testClass, false);
+        context.put(USER, user);
+        context.put(SESSION, user.getSession());
+    }
+
+    /** Sign the default consent, then sign in again to pick up the consented session and study membership. */
+    public void consent(JourneyContext context) throws Exception {
+        TestUser user = context.get(USER);
+        ConsentSignature signature = new ConsentSignature().name(user.getEmail())
+                .birthdate(new LocalDate(1970, 10, 10)).scope(SPONSORS_AND_PARTNERS);
+        context.getClient(ForConsentedUsersApi.class)
+                .createConsentSignature(user.getDefaultSubpopulation(), signature).execute();
+        UserSessionInfo session = user.signInAgain();
+        context.put(SESSION, session);
+        context.put(CONSENTED, true);
+        List<String> studyIds = session.getStudyIds();
+        if (studyIds != null && !studyIds.isEmpty()) {
+            context.put(STUDY_ID, studyIds.get(0));
+        }
+    }
+
+    public void getActivityEvents(JourneyContext context) throws Exception {
+        context.getClient(ForConsentedUsersApi.class).getActivityEvents().execute();
+    }
+
+    public void createCustomEvent(JourneyContext context) throws Exception {
+        context.getClient(ForConsentedUsersApi.class).createCustomActivityEvent(new CustomActivityEventRequest()
+                .eventId(customEventId).timestamp(DateTime.now(DateTimeZone.UTC))).execute();
+    }
+
+    /** A study without a schedule has no timeline; that is still a served request, not a failure. */
+    public void getTimeline(JourneyContext context) throws Exception {
+        try {
+            context.getClient(ForConsentedUsersApi.class).getTimelineForSelf(context.get(STUDY_ID), null).execute();
+        } catch(EntityNotFoundException e) {
+            // No schedule for this study.
+        }
+    }
+
+    /** Upload one of the unencrypted fixtures, encrypted for the environment. */
+    public void upload(JourneyContext context) throws Exception {
+        TestUser user = context.get(USER);
+        if (encryptor == null) {
+            encryptor = UploadArchiveEncryptor.forEnvironment(user);
+        }
+        File file = File.createTempFile("journey-upload", ".zip");
+        try {
+            try (OutputStream out = new FileOutputStream(file)) {
+                encryptor.encrypt("generic-survey", DateTime.now(), out);
+            }
+            StreamingUploader.upload(context.getClient(ForConsentedUsersApi.class), file);
+        } finally {
+            file.delete();
+        }
+    }
+
+    public void saveReport(JourneyContext context) throws Exception {
+        ReportData reportData = new ReportData();
+        reportData.setDateTime(DateTime.now(DateTimeZone.UTC));
+        reportData.setData(ImmutableMap.of("participant", context.getIndex()));
+        context.getClient(UsersApi.class).saveParticipantReportRecordsV4(reportId, reportData).execute();
+    }
+}
@@ -0,0 +1,105 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.sagebionetworks.bridge.rest.api.ForAdminsApi;
+import org.sagebionetworks.bridge.rest.api.SurveysApi;
+import org.sagebionetworks.bridge.rest.api.UploadSchemasApi;
+import org.sagebionetworks.bridge.rest.exceptions.EntityNotFoundException;
+import org.sagebionetworks.bridge.rest.model.Constraints;
+import org.sagebionetworks.bridge.rest.model.DataType;
+import org.sagebionetworks.bridge.rest.model.GuidCreatedOnVersionHolder;
+import org.sagebionetworks.bridge.rest.model.IntegerConstraints;
+import org.sagebionetworks.bridge.rest.model.SchemaReference;
+import org.sagebionetworks.bridge.rest.model.Survey;
+import org.sagebionetworks.bridge.rest.model.SurveyElement;
+import org.sagebionetworks.bridge.rest.model.SurveyQuestion;
+import org.sagebionetworks.bridge.rest.model.SurveyReference;
+import org.sagebionetworks.bridge.rest.model.UIHint;
+import org.sagebionetworks.bridge.rest.model.UploadFieldDefinition;
+import org.sagebionetworks.bridge.rest.model.UploadFieldType;
+import org.sagebionetworks.bridge.rest.model.UploadSchema;
+import org.sagebionetworks.bridge.rest.model.UploadSchemaType;
+import org.sagebionetworks.bridge.user.TestUserHelper;
+import org.sagebionetworks.bridge.user.TestUserHelper.TestUser;
+
+/**
+ * Schemas and published surveys for activities and compound activity definitions to reference, as in
+ * ScheduledActivityAutoResolutionTest, created by a developer under a common prefix. delete() removes every
+ * survey version and schema created through this object (including the schemas publishing a survey creates), so
+ * call it after the plans and definitions that reference them are gone.
+ */
+public class ReferencedEntities {
+    private static final UploadFieldDefinition SIMPLE_FIELD_DEF = new UploadFieldDefinition()
+            .name("record.json.test-field").type(UploadFieldType.STRING).maxLength(10);
+
+    private final TestUser developer;
+    private final String prefix;
+    private final List<String> schemaIds = new ArrayList<>();
+    private final List<String> surveyIds = new ArrayList<>();
+    private final List<GuidCreatedOnVersionHolder> publishedSurveyKeys = new ArrayList<>();
+    private final List<GuidCreatedOnVersionHolder> surveysToDelete = new ArrayList<>();
+
+    public ReferencedEntities(TestUser developer, String prefix) {
+        this.developer = developer;
+        this.prefix = prefix;
+    }
+
+    public SchemaReference createSchema(int index) throws Exception {
+        String schemaId = prefix + "-schema-" + index;
+        UploadSchema schema = new UploadSchema().name(schemaId).schemaId(schemaId).revision(1L)
+                .schemaType(UploadSchemaType.IOS_DATA).addFieldDefinitionsItem(SIMPLE_FIELD_DEF);
+        developer.getClient(UploadSchemasApi.class).createUploadSchema(schema).execute();
+        schemaIds.add(schemaId);
+        return new SchemaReference().id(schemaId);
+    }
+
+    public SurveyReference createPublishedSurvey(int index) throws Exception {
+        String surveyId = prefix + "-survey-" + index;
+        Constraints constraints = new IntegerConstraints().dataType(DataType.INTEGER);
+        SurveyElement surveyQuestion = new SurveyQuestion().constraints(constraints)
+                .prompt("Pick a Number").uiHint(UIHint.NUMBERFIELD).identifier("test-survey-q");
+        Tests.setVariableValueInObject(surveyQuestion, "type", "SurveyQuestion");
+        Survey survey = new Survey().name(surveyId).identifier(surveyId).addElementsItem(surveyQuestion);
+        SurveysApi surveysApi = developer.getClient(SurveysApi.class);
+        GuidCreatedOnVersionHolder keys = surveysApi.createSurvey(survey).execute().body();
+        surveysToDelete.add(keys);
+        surveyIds.add(surveyId);
+        surveysApi.publishSurvey(keys.getGuid(), keys.getCreatedOn(), false).execute();
+        publishedSurveyKeys.add(keys);
+        return new SurveyReference().guid(keys.getGuid()).identifier(surveyId);
+    }
+
+    /** Publish a new version of every survey, so published survey references resolve to something new. */
+    public void publishNewSurveyVersions() throws Exception {
+        SurveysApi surveysApi = developer.getClient(SurveysApi.class);
+        for (int i = 0; i < publishedSurveyKeys.size(); i++) {
+            GuidCreatedOnVersionHolder keys = publishedSurveyKeys.get(i);
+            GuidCreatedOnVersionHolder newKeys = surveysApi.versionSurvey(keys.getGuid(), keys.getCreatedOn())
+                    .execute().body();
+            surveysToDelete.add(newKeys);
+            surveysApi.publishSurvey(newKeys.getGuid(), newKeys.getCreatedOn(), false).execute();
+            publishedSurveyKeys.set(i, newKeys);
+        }
+    }
+
+    public void delete() throws Exception {
+        TestUser admin = TestUserHelper.getSignedInAdmin();
+        SurveysApi adminSurveysApi = admin.getClient(SurveysApi.class);
+        for (GuidCreatedOnVersionHolder keys : surveysToDelete) {
+            adminSurveysApi.deleteSurvey(keys.getGuid(), keys.getCreatedOn(), true).execute();
+        }
+        // Publishing a survey also creates a schema for it.
+        ForAdminsApi adminsApi = admin.getClient(ForAdminsApi.class);
+        List<String> allSchemaIds = new ArrayList<>(schemaIds);
+        allSchemaIds.addAll(surveyIds);
+        for (String schemaId : allSchemaIds) {
+            try {
+                adminsApi.deleteAllRevisionsOfUploadSchema(schemaId, true).execute();
+            } catch(EntityNotFoundException e) {
+                // this is okay
+            }
+        }
+    }
+}
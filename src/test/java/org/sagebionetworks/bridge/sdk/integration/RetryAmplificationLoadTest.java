@@ -0,0 +1,176 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+import static org.sagebionetworks.bridge.sdk.integration.LoadTestHelper.PROPERTY_PREFIX;
+import static org.sagebionetworks.bridge.sdk.integration.LoadTestHelper.intProperty;
+import static org.sagebionetworks.bridge.sdk.integration.LoadTestHelper.stringProperty;
+import static org.sagebionetworks.bridge.sdk.integration.Tests.PASSWORD;
+import static org.sagebionetworks.bridge.util.IntegTestUtils.TEST_APP_ID;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.sagebionetworks.bridge.rest.ApiClientProvider;
+import org.sagebionetworks.bridge.rest.RestUtils;
+import org.sagebionetworks.bridge.rest.api.ForAdminsApi;
+import org.sagebionetworks.bridge.rest.api.ForConsentedUsersApi;
+import org.sagebionetworks.bridge.rest.model.SignIn;
+import org.sagebionetworks.bridge.rest.model.SignUp;
+import org.sagebionetworks.bridge.rest.model.UploadSession;
+import org.sagebionetworks.bridge.rest.model.UploadStatus;
+import org.sagebionetworks.bridge.rest.model.UploadValidationStatus;
+import org.sagebionetworks.bridge.user.TestUserHelper;
+import org.sagebionetworks.bridge.user.TestUserHelper.TestUser;
+import org.sagebionetworks.bridge.util.IntegTestUtils;
+
+/**
+ * Puts a ForwardingProxy between a participant client and the server, and steps through increasingly severe
+ * fault levels (latency, 5xx/429 responses, connection resets, slow bodies). At each level it runs the client
+ * patterns the suite relies on: a single call, a call wrapped in Tests.retryHelper, and an upload followed by
+ * the status polling loop from UploadTest. For each it reports retry amplification (requests that reached the
+ * proxy per logical operation) alongside latency and failures of the logical operation.
+ *
+ * Levels are EndpointBehavior specs separated by semicolons in -Dloadtest.faultLevels. Routes can be given
+ * fixed faults with e.g. -Dloadtest.faultBehavior.GET:/v3/uploadstatuses/{id}=2000. Runs against the
+ * stand-in server with -Dloadtest.standIn=true.
+ */
+@Category(LoadTest.class)
+public class RetryAmplificationLoadTest {
+    private static final Logger LOG = LoggerFactory.getLogger(RetryAmplificationLoadTest.class);
+
+    private static final String FAULT_BEHAVIOR_PREFIX = PROPERTY_PREFIX + "faultBehavior.";
+    private static final String[] FAULT_LEVELS = stringProperty("faultLevels",
+            "0;100,100,0.02,503;300,300,0.05,503,0.01;300,300,0.05,429;1000,1000,0.1,503,0.02,8192").split(";");
+    private static final int OPERATIONS = intProperty("operationsPerScenario", 40);
+    private static final int THREADS = intProperty("threads", 8);
+    private static final int POLL_DELAY_MILLIS = intProperty("pollDelayMillis", 500);
+    private static final int POLL_RETRIES = intProperty("pollRetries", 6);
+
+    private TestUser user;
+    private ForAdminsApi standInAdminApi;
+    private String standInUserId;
+    private ForwardingProxy proxy;
+    private ForConsentedUsersApi api;
+    private File uploadFile;
+    private final AtomicInteger proxiedRequests = new AtomicInteger();
+    private final AtomicInteger injectedFaults = new AtomicInteger();
+    private final LatencyRecorder recorder = new LatencyRecorder();
+
+    @Before
+    public void before() throws Exception {
+        String target;
+        SignIn signIn;
+        if (LoadTestHelper.isStandInMode()) {
+            StandInServer server = StandInServer.get();
+            standInAdminApi = LoadTestHelper.getClient(ForAdminsApi.class, server.getAdminSignIn());
+            String email = IntegTestUtils.makeEmail(RetryAmplificationLoadTest.class);
+            SignUp signUp = new SignUp().email(email).password(PASSWORD).appId(TEST_APP_ID).consent(true);
+            standInUserId = standInAdminApi.createUser(signUp).execute().body().getId();
+            signIn = new SignIn().email(email).password(PASSWORD).appId(TEST_APP_ID);
+            target = server.getBaseUrl();
+        } else {
+            user = TestUserHelper.createAndSignInUser(RetryAmplificationLoadTest.class, true);
+            signIn = user.getSignIn();
+            target = user.getClientManager().getHostUrl();
+        }
+        proxy = new ForwardingProxy(0, target);
+        proxy.addListener((entry) -> {
+            proxiedRequests.incrementAndGet();
+            if (entry.getFault() != null) {
+                injectedFaults.incrementAndGet();
+            }
+        });
+        String userAgent = RestUtils.getUserAgent(Tests.getClientInfoWithVersion("Android", 1));
+        api = new ApiClientProvider(proxy.getBaseUrl(), userAgent, "en", TEST_APP_ID)
+                .getClient(ForConsentedUsersApi.class, signIn);
+
+        // Sign in before any faults are injected.
+        api.getUsersParticipantRecord(false).execute();
+
+        byte[] content = new byte[4096];
+        new Random().nextBytes(content);
+        uploadFile = File.createTempFile("retry-amplification", ".zip");
+        Files.write(uploadFile.toPath(), content);
+    }
+
+    @After
+    public void after() throws Exception {
+        if (proxy != null) {
+            proxy.stop();
+        }
+        if (uploadFile != null) {
+            uploadFile.delete();
+        }
+        if (user != null) {
+            user.signOutAndDeleteUser();
+        }
+        if (standInUserId != null) {
+            standInAdminApi.deleteUser(standInUserId).execute();
+        }
+    }
+
+    @Test
+    public void retryAmplificationUnderFaults() throws Exception {
+        Map<String, Callable<?>> scenarios = new LinkedHashMap<>();
+        scenarios.put("singleCall", () -> api.getUsersParticipantRecord(false).execute());
+        scenarios.put("retryHelper", () -> Tests.retryHelper(
+                () -> api.getUsersParticipantRecord(false).execute().body(), (participant) -> participant.getId() != null));
+        scenarios.put("uploadAndPoll", this::uploadAndPoll);
+
+        for (String level : FAULT_LEVELS) {
+            EndpointBehavior behavior = EndpointBehavior.parse(level);
+            LOG.info("Fault level: {}", behavior);
+            for (Map.Entry<String, Callable<?>> scenario : scenarios.entrySet()) {
+                applyFaults(behavior);
+                recorder.reset();
+                proxiedRequests.set(0);
+                injectedFaults.set(0);
+                long elapsed = LoadTestHelper.runConcurrently(THREADS, OPERATIONS,
+                        (index) -> recorder.time(scenario.getKey(), scenario.getValue()));
+                proxy.clearBehaviors();
+
+                LatencyRecorder.Summary summary = recorder.getSummary(scenario.getKey());
+                LOG.info("  {}", summary.toString(elapsed));
+                LOG.info("    {} requests for {} operations (amplification {}x), {} faults injected",
+                        proxiedRequests.get(), OPERATIONS,
+                        String.format("%.2f", proxiedRequests.get() / (double)OPERATIONS), injectedFaults.get());
+            }
+        }
+    }
+
+    /** The polling loop from UploadTest.testUpload, with a configurable delay. */
+    private UploadValidationStatus uploadAndPoll() throws Exception {
+        UploadSession session = RestUtils.upload(api, uploadFile);
+        for (int i = 0; i < POLL_RETRIES; i++) {
+            Thread.sleep(POLL_DELAY_MILLIS);
+            UploadValidationStatus status = api.getUploadStatus(session.getId()).execute().body();
+            if (status.getStatus() == UploadStatus.SUCCEEDED || status.getStatus() == UploadStatus.VALIDATION_FAILED) {
+                return status;
+            }
+        }
+        throw new IllegalStateException("Upload " + session.getId() + " did not finish validation");
+    }
+
+    private void applyFaults(EndpointBehavior behavior) {
+        proxy.setBehavior(null, behavior);
+        Properties props = System.getProperties();
+        for (String name : props.stringPropertyNames()) {
+            if (name.startsWith(FAULT_BEHAVIOR_PREFIX)) {
+                proxy.setBehavior(name.substring(FAULT_BEHAVIOR_PREFIX.length()),
+                        EndpointBehavior.parse(props.getProperty(name)));
+            }
+        }
+    }
+}
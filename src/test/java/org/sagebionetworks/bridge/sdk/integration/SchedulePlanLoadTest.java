@@ -0,0 +1,171 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+import static org.sagebionetworks.bridge.sdk.integration.LoadTestHelper.intListProperty;
+import static org.sagebionetworks.bridge.sdk.integration.LoadTestHelper.intProperty;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.google.common.base.Joiner;
+import com.google.common.collect.Lists;
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.sagebionetworks.bridge.rest.api.ForConsentedUsersApi;
+import org.sagebionetworks.bridge.rest.api.SchedulesV1Api;
+import org.sagebionetworks.bridge.rest.model.ABTestGroup;
+import org.sagebionetworks.bridge.rest.model.ABTestScheduleStrategy;
+import org.sagebionetworks.bridge.rest.model.Role;
+import org.sagebionetworks.bridge.rest.model.SchedulePlan;
+import org.sagebionetworks.bridge.rest.model.ScheduledActivityListV4;
+import org.sagebionetworks.bridge.user.TestUserHelper;
+import org.sagebionetworks.bridge.user.TestUserHelper.TestUser;
+
+/**
+ * Seeds v1 schedule plans, starting from the ones in Tests (getABTestSchedulePlan, getSimpleSchedulePlan,
+ * getDailyRepeatingSchedulePlan and getPersistentSchedulePlan) in rotation, and has consented participants request
+ * their scheduled activities over a range of days ahead, as our apps do on launch. For each schedule density (the
+ * times per day of the cron and interval schedules) the plan count grows through loadtest.planCounts, and at
+ * each size every entry in loadtest.daysAhead is measured, so the point where the v1 scheduler becomes the
+ * bottleneck can be read off as a function of all three. The mean number of activities returned is logged with
+ * each step. The server caps the date range it will schedule; longer requests show up as errors.
+ */
+@Category(LoadTest.class)
+public class SchedulePlanLoadTest {
+    private static final Logger LOG = LoggerFactory.getLogger(SchedulePlanLoadTest.class);
+
+    private static final List<Integer> PLAN_COUNTS = intListProperty("planCounts", "5,25,100");
+    private static final List<Integer> TIMES_PER_DAY = intListProperty("timesPerDay", "1,4");
+    private static final List<Integer> DAYS_AHEAD = intListProperty("daysAhead", "1,4,14");
+    private static final int PARTICIPANTS = intProperty("participants", 20);
+    private static final int REQUESTS_PER_STEP = intProperty("requestsPerStep", 100);
+    private static final int THREADS = intProperty("threads", 8);
+    private static final String DAYS_OF_WEEK = "MON,WED,FRI";
+
+    private TestUser developer;
+    private SchedulesV1Api schedulesApi;
+    private String prefix;
+    private final List<String> planGuids = new ArrayList<>();
+    private final List<TestUser> participants = new ArrayList<>();
+    private final LatencyRecorder recorder = new LatencyRecorder();
+
+    @Before
+    public void before() throws Exception {
+        developer = TestUserHelper.createAndSignInUser(SchedulePlanLoadTest.class, false, Role.DEVELOPER);
+        schedulesApi = developer.getClient(SchedulesV1Api.class);
+        prefix = Tests.randomIdentifier(SchedulePlanLoadTest.class);
+    }
+
+    @After
+    public void after() throws Exception {
+        deletePlans();
+        for (TestUser participant : participants) {
+            participant.signOutAndDeleteUser();
+        }
+        developer.signOutAndDeleteUser();
+    }
+
+    @Test
+    public void scheduledActivityGeneration() throws Exception {
+        LoadTestHelper.createParticipants(SchedulePlanLoadTest.class, PARTICIPANTS, THREADS, participants);
+
+        for (int timesPerDay : TIMES_PER_DAY) {
+            deletePlans();
+            for (int planCount : PLAN_COUNTS) {
+                while (planGuids.size() < planCount) {
+                    SchedulePlan plan = createPlan(planGuids.size(), timesPerDay);
+                    planGuids.add(schedulesApi.createSchedulePlan(plan).execute().body().getGuid());
+                }
+                for (int daysAhead : DAYS_AHEAD) {
+                    measure(planCount, timesPerDay, daysAhead);
+                }
+            }
+        }
+    }
+
+    private void measure(int planCount, int timesPerDay, int daysAhead) throws Exception {
+        recorder.reset();
+        AtomicLong activities = new AtomicLong();
+        String operation = "getScheduledActivitiesByDateRange";
+        long elapsed = LoadTestHelper.runConcurrently(THREADS, REQUESTS_PER_STEP, (index) -> {
+            ForConsentedUsersApi usersApi = participants.get(index % participants.size())
+                    .getClient(ForConsentedUsersApi.class);
+            DateTime startsOn = DateTime.now(DateTimeZone.UTC);
+            ScheduledActivityListV4 list = recorder.time(operation, () -> usersApi
+                    .getScheduledActivitiesByDateRange(startsOn, startsOn.plusDays(daysAhead)).execute().body());
+            activities.addAndGet(list.getItems().size());
+            return list;
+        });
+        recorder.log(LOG, String.format("%d plans, %d times/day, %d days ahead", planCount, timesPerDay,
+                daysAhead), elapsed);
+        long count = recorder.getSummary(operation).getCount();
+        if (count > 0) {
+            LOG.info("  mean activities per response={}", String.format("%.1f", activities.get() / (double)count));
+        }
+    }
+
+    /**
+     * Rotates through the plan shapes in Tests: an A/B test of cron schedules, a single cron schedule, a daily
+     * interval schedule and a persistent schedule. The cron and interval schedules fire timesPerDay times a day.
+     */
+    private SchedulePlan createPlan(int index, int timesPerDay) {
+        SchedulePlan plan;
+        switch(index % 4) {
+        case 0:
+            plan = Tests.getABTestSchedulePlan();
+            for (ABTestGroup group : ((ABTestScheduleStrategy)plan.getStrategy()).getScheduleGroups()) {
+                group.getSchedule().setCronTrigger(cronTrigger(timesPerDay));
+            }
+            break;
+        case 1:
+            plan = Tests.getSimpleSchedulePlan();
+            Tests.getSimpleSchedule(plan).setCronTrigger(cronTrigger(timesPerDay));
+            break;
+        case 2:
+            plan = Tests.getDailyRepeatingSchedulePlan();
+            Tests.getSimpleSchedule(plan).setTimes(times(timesPerDay));
+            break;
+        default:
+            plan = Tests.getPersistentSchedulePlan();
+            break;
+        }
+        plan.setLabel(prefix + "-" + index + " " + plan.getLabel());
+        return plan;
+    }
+
+    /** Fires at timesPerDay hours spread from 8:00, on the same days as the plans in Tests. */
+    private static String cronTrigger(int timesPerDay) {
+        List<Integer> hours = new ArrayList<>();
+        for (int i = 0; i < timesPerDay; i++) {
+            hours.add(8 + (i * 12 / timesPerDay));
+        }
+        return "0 0 " + Joiner.on(",").join(hours) + " ? * " + DAYS_OF_WEEK + " *";
+    }
+
+    private static List<String> times(int timesPerDay) {
+        List<String> times = Lists.newArrayList();
+        for (int i = 0; i < timesPerDay; i++) {
+            times.add(String.format("%02d:00", 8 + (i * 12 / timesPerDay)));
+        }
+        return times;
+    }
+
+    private void deletePlans() {
+        SchedulesV1Api adminSchedulesApi = TestUserHelper.getSignedInAdmin().getClient(SchedulesV1Api.class);
+        for (String guid : planGuids) {
+            try {
+                adminSchedulesApi.deleteSchedulePlan(guid, true).execute();
+            } catch (Exception e) {
+                LOG.error("Error deleting schedule plan " + guid + ": " + e.getMessage(), e);
+            }
+        }
+        planGuids.clear();
+    }
+}
@@ -0,0 +1,952 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.sagebionetworks.bridge.sdk.integration.LoadTestHelper.PROPERTY_PREFIX;
+import static org.sagebionetworks.bridge.sdk.integration.Tests.PASSWORD;
+import static org.sagebionetworks.bridge.util.IntegTestUtils.TEST_APP_ID;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.gson.JsonObject;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.sagebionetworks.bridge.rest.ApiClientProvider;
+import org.sagebionetworks.bridge.rest.RestUtils;
+import org.sagebionetworks.bridge.rest.model.AppConfig;
+import org.sagebionetworks.bridge.rest.model.AppConfigElement;
+import org.sagebionetworks.bridge.rest.model.ConfigReference;
+import org.sagebionetworks.bridge.rest.model.Criteria;
+import org.sagebionetworks.bridge.rest.model.IntentToParticipate;
+import org.sagebionetworks.bridge.rest.model.NotificationRegistration;
+import org.sagebionetworks.bridge.rest.model.NotificationTopic;
+import org.sagebionetworks.bridge.rest.model.Phone;
+import org.sagebionetworks.bridge.rest.model.Role;
+import org.sagebionetworks.bridge.rest.model.SignIn;
+import org.sagebionetworks.bridge.rest.model.SignUp;
+import org.sagebionetworks.bridge.rest.model.StudyParticipant;
+import org.sagebionetworks.bridge.rest.model.SubscriptionRequest;
+import org.sagebionetworks.bridge.rest.model.UploadRequest;
+
+/**
+ * An in-process stand-in for the Bridge server, so the load tests can be developed and run on a machine
+ * with no network access. Select it with -Dloadtest.standIn=true; InitListener then starts it instead of
+ * bootstrapping the live test app, and LoadTestHelper.getClient() hands out clients pointed at it.
+ *
+ * Only the endpoints the load tests use are implemented (sign in, accounts, self participant record, app
+ * configs and config elements, notification topics, registrations and subscriptions, uploads, intents to
+ * participate), backed by in-memory maps. A session is required where Bridge requires one, but roles are not
+ * checked. Subscription changes become visible, and completed uploads succeed validation, after
+ * loadtest.standIn.convergenceMillis, to mimic the asynchronous work the real server does. Upload sessions
+ * point at a fake S3 bucket on the same server that accepts any content. SMS and email the real server would
+ * send (the install link for an intent to participate, the consent agreement when an intent is applied at the
+ * new account's first sign in) are only counted, see getSentMessageCount(); the sends take the latency of the
+ * "SEND:sms" and "SEND:email" behaviors, which default to none.
+ *
+ * Every route has an EndpointBehavior (latency and error distribution). The default comes from
+ * -Dloadtest.standIn.behavior=latencyMillis,jitterMillis,errorRate,status and individual routes can be
+ * overridden with e.g. -Dloadtest.standIn.behavior.GET:/v3/topics=50,20. The time the server spends on each
+ * route (including injected latency) is kept in getServerRecorder(), so client overhead can be read off as
+ * the difference from what the test measures.
+ */
+public class StandInServer {
+    private static final Logger LOG = LoggerFactory.getLogger(StandInServer.class);
+
+    static final String STAND_IN_PREFIX = PROPERTY_PREFIX + "standIn.";
+    static final String BEHAVIOR_PREFIX = STAND_IN_PREFIX + "behavior";
+    static final String ADMIN_EMAIL = "admin@stand-in.sagebridge.org";
+    private static final Pattern PATH_VARIABLE = Pattern.compile("\\{(\\w+)\\}");
+    private static final Pattern USER_AGENT = Pattern.compile("^.*?/(\\d+) \\(.*?; (.+?)/");
+
+    private static StandInServer instance;
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final long convergenceMillis;
+    private final List<Route> routes = new ArrayList<>();
+    private final Map<String, EndpointBehavior> behaviors = new ConcurrentHashMap<>();
+    private volatile EndpointBehavior defaultBehavior;
+    private final LatencyRecorder serverRecorder = new LatencyRecorder();
+
+    private final Map<String, Account> accounts = new ConcurrentHashMap<>();
+    // Sign in looks accounts up by email or phone number, so it doesn't slow down as accounts are added.
+    private final Map<String, Account> accountsByEmail = new ConcurrentHashMap<>();
+    private final Map<String, Account> accountsByPhone = new ConcurrentHashMap<>();
+    private final Map<String, Account> sessions = new ConcurrentHashMap<>();
+    private final Map<String, AppConfig> appConfigs = new LinkedHashMap<>();
+    private final Map<String, AppConfigElement> configElements = new ConcurrentHashMap<>();
+    private final Map<String, NotificationTopic> topics = new LinkedHashMap<>();
+    private final Map<String, Registration> registrations = new ConcurrentHashMap<>();
+    private final Map<String, Upload> uploads = new ConcurrentHashMap<>();
+    private final Map<String, IntentToParticipate> intents = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> sentMessages = new ConcurrentHashMap<>();
+
+    /** Returns the running stand-in server, starting it on first use. */
+    public static synchronized StandInServer get() throws IOException {
+        if (instance == null) {
+            instance = new StandInServer(Integer.getInteger(STAND_IN_PREFIX + "port", 0));
+            LOG.info("Bridge stand-in server listening at {}", instance.getBaseUrl());
+        }
+        return instance;
+    }
+
+    public static synchronized void stop() {
+        if (instance != null) {
+            instance.server.stop(0);
+            instance.executor.shutdownNow();
+            instance = null;
+        }
+    }
+
+    private StandInServer(int port) throws IOException {
+        this.convergenceMillis = Long.getLong(STAND_IN_PREFIX + "convergenceMillis", 500L);
+        this.defaultBehavior = EndpointBehavior.parse(System.getProperty(BEHAVIOR_PREFIX, "0"));
+        Properties props = System.getProperties();
+        for (String name : props.stringPropertyNames()) {
+            if (name.startsWith(BEHAVIOR_PREFIX + ".")) {
+                behaviors.put(name.substring(BEHAVIOR_PREFIX.length() + 1),
+                        EndpointBehavior.parse(props.getProperty(name)));
+            }
+        }
+        Account admin = new Account();
+        admin.email = ADMIN_EMAIL;
+        admin.roles = ImmutableList.of(Role.SUPERADMIN, Role.ADMIN, Role.DEVELOPER, Role.RESEARCHER);
+        addAccount(admin);
+
+        addRoutes();
+
+        // Injected latency is a sleep, so requests need their own threads to overlap the way they would on a
+        // real server.
+        this.executor = Executors.newCachedThreadPool();
+        this.server = HttpServer.create(new InetSocketAddress("localhost", port), 0);
+        this.server.createContext("/", this::handle);
+        this.server.setExecutor(executor);
+        this.server.start();
+    }
+
+    public String getBaseUrl() {
+        return "http://localhost:" + server.getAddress().getPort();
+    }
+
+    /** Credentials for an account holding every role, which stands in for both the admin and developers. */
+    public SignIn getAdminSignIn() {
+        return new SignIn().email(ADMIN_EMAIL).password(PASSWORD).appId(TEST_APP_ID);
+    }
+
+    /** A client that signs in to the stand-in server with the given credentials. */
+    public <T> T getClient(Class<T> service, SignIn signIn) {
+        return getProvider().getClient(service, signIn);
+    }
+
+    /** A client for the stand-in server's public endpoints, with no session. */
+    public <T> T getUnauthenticatedClient(Class<T> service) {
+        return getProvider().getClient(service);
+    }
+
+    private ApiClientProvider getProvider() {
+        String userAgent = RestUtils.getUserAgent(Tests.getClientInfoWithVersion("Android", 1));
+        return new ApiClientProvider(getBaseUrl(), userAgent, "en", TEST_APP_ID);
+    }
+
+    /** Set the latency and error distribution of a route, e.g. "GET:/v3/topics", or of every route if null. */
+    public void setBehavior(String route, EndpointBehavior behavior) {
+        if (route == null) {
+            defaultBehavior = behavior;
+        } else {
+            behaviors.put(route, behavior);
+        }
+    }
+
+    public LatencyRecorder getServerRecorder() {
+        return serverRecorder;
+    }
+
+    /** Intents to participate that have been submitted but not yet applied to an account. */
+    public int getPendingIntentCount() {
+        return intents.size();
+    }
+
+    /** Messages sent through the given channel ("sms" or "email") since the server started. */
+    public long getSentMessageCount(String channel) {
+        AtomicLong count = sentMessages.get(channel);
+        return (count == null) ? 0L : count.get();
+    }
+
+    private void addRoutes() {
+        route("POST", "/v3/auth/signIn", false, this::signIn);
+        route("POST", "/v4/auth/signIn", false, this::signIn);
+        route("POST", "/v3/auth/signOut", false, this::signOut);
+        route("POST", "/v3/itp", false, this::submitIntent);
+        route("GET", "/v1/apps/{appId}/appconfig", false, this::resolveAppConfig);
+
+        route("POST", "/v3/users", true, this::createUser);
+        route("DELETE", "/v3/users/{userId}", true, this::deleteUser);
+        route("GET", "/v3/participants/self", true, this::getSelf);
+        route("POST", "/v3/participants/self", true, this::updateSelf);
+
+        route("POST", "/v3/appconfigs/elements", true, this::createConfigElement);
+        route("GET", "/v3/appconfigs/elements/{id}/revisions/{revision}", true, this::getConfigElement);
+        route("DELETE", "/v3/appconfigs/elements/{id}", true, this::deleteConfigElement);
+        route("POST", "/v3/appconfigs", true, this::createAppConfig);
+        route("GET", "/v3/appconfigs", true, (request) -> list(appConfigs));
+        route("GET", "/v3/appconfigs/{guid}", true, (request) -> find(appConfigs, request.param("guid")));
+        route("DELETE", "/v3/appconfigs/{guid}", true, (request) -> delete(appConfigs, request.param("guid")));
+
+        route("POST", "/v3/topics", true, this::createTopic);
+        route("GET", "/v3/topics", true, (request) -> list(topics));
+        route("GET", "/v3/topics/{guid}", true, (request) -> find(topics, request.param("guid")));
+        route("DELETE", "/v3/topics/{guid}", true, (request) -> delete(topics, request.param("guid")));
+
+        route("POST", "/v3/notifications", true, this::createRegistration);
+        route("GET", "/v3/notifications/{guid}/subscriptions", true, this::getSubscriptions);
+        route("POST", "/v3/notifications/{guid}/subscriptions", true, this::subscribe);
+        route("DELETE", "/v3/notifications/{guid}", true, this::deleteRegistration);
+
+        route("POST", "/v3/uploads", true, this::requestUpload);
+        route("PUT", "/s3/{uploadId}", false, this::receiveUploadContent);
+        route("POST", "/v3/uploads/{uploadId}/complete", true, this::completeUpload);
+        route("GET", "/v3/uploadstatuses/{uploadId}", true, this::getUploadStatus);
+    }
+
+    private void route(String method, String template, boolean authenticated, Handler handler) {
+        List<String> names = new ArrayList<>();
+        Matcher matcher = PATH_VARIABLE.matcher(template);
+        StringBuffer regex = new StringBuffer();
+        while (matcher.find()) {
+            names.add(matcher.group(1));
+            matcher.appendReplacement(regex, "([^/]+)");
+        }
+        matcher.appendTail(regex);
+        routes.add(new Route(method + ":" + template, method, Pattern.compile(regex.toString()), names,
+                authenticated, handler));
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        long start = System.nanoTime();
+        String method = exchange.getRequestMethod();
+        String path = exchange.getRequestURI().getPath();
+        String routeName = method + ":" + path;
+        try {
+            Request request = null;
+            Route route = null;
+            for (Route oneRoute : routes) {
+                Matcher matcher = oneRoute.pattern.matcher(path);
+                if (oneRoute.method.equals(method) && matcher.matches()) {
+                    route = oneRoute;
+                    request = new Request(exchange);
+                    for (int i = 0; i < oneRoute.variables.size(); i++) {
+                        request.params.put(oneRoute.variables.get(i), matcher.group(i + 1));
+                    }
+                    break;
+                }
+            }
+            if (route == null) {
+                LOG.warn("Stand-in server does not implement {} {}", method, path);
+                sendError(exchange, 404, "EntityNotFoundException", method + " " + path + " is not implemented.");
+                return;
+            }
+            routeName = route.name;
+
+            EndpointBehavior behavior = behaviors.getOrDefault(route.name, defaultBehavior);
+            long latency = behavior.sampleLatencyMillis();
+            if (latency > 0) {
+                Thread.sleep(latency);
+            }
+            if (behavior.sampleError()) {
+                sendError(exchange, behavior.getErrorStatus(), "BridgeServiceException", "Injected error.");
+                return;
+            }
+            if (route.authenticated) {
+                String token = exchange.getRequestHeaders().getFirst("Bridge-Session");
+                request.account = (token == null) ? null : sessions.get(token);
+                if (request.account == null) {
+                    sendError(exchange, 401, "NotAuthenticatedException", "Not signed in.");
+                    return;
+                }
+            }
+            Object result = route.handler.handle(request);
+            int status = 200;
+            if (result instanceof Reply) {
+                status = ((Reply)result).status;
+                result = ((Reply)result).body;
+            }
+            send(exchange, status, RestUtils.GSON.toJson(result));
+        } catch(StandInException e) {
+            sendError(exchange, e.status, e.type, e.getMessage());
+        } catch(Exception e) {
+            LOG.error("Stand-in server error on " + method + " " + path, e);
+            sendError(exchange, 500, "BridgeServiceException", e.getMessage());
+        } finally {
+            serverRecorder.record(routeName, System.nanoTime() - start);
+            exchange.close();
+        }
+    }
+
+    private Object signIn(Request request) throws Exception {
+        SignIn signIn = request.body(SignIn.class);
+        Account account = null;
+        if (signIn.getEmail() != null) {
+            account = accountsByEmail.get(signIn.getEmail());
+        } else if (signIn.getPhone() != null) {
+            account = accountsByPhone.get(signIn.getPhone().getNumber());
+        }
+        if (account == null || !account.password.equals(signIn.getPassword())) {
+            throw new StandInException(404, "EntityNotFoundException", "Account not found.");
+        }
+        if (!account.consented && !applyIntent(account)) {
+            throw new StandInException(412, "ConsentRequiredException", "Consent is required.");
+        }
+        if (account.sessionToken == null) {
+            account.sessionToken = UUID.randomUUID().toString();
+            sessions.put(account.sessionToken, account);
+        }
+        return session(account);
+    }
+
+    private Object signOut(Request request) {
+        String token = request.exchange.getRequestHeaders().getFirst("Bridge-Session");
+        if (token != null) {
+            Account account = sessions.remove(token);
+            if (account != null) {
+                account.sessionToken = null;
+            }
+        }
+        return message("Signed out.");
+    }
+
+    private Object createUser(Request request) throws Exception {
+        SignUp signUp = request.body(SignUp.class);
+        Account account = new Account();
+        account.email = signUp.getEmail();
+        account.phone = signUp.getPhone();
+        account.password = signUp.getPassword();
+        if (signUp.getRoles() != null) {
+            account.roles = ImmutableList.copyOf(signUp.getRoles());
+        }
+        if (signUp.getDataGroups() != null) {
+            account.dataGroups = ImmutableList.copyOf(signUp.getDataGroups());
+        }
+        // As on the real server, the account is consented if the sign up says so. Otherwise it can still be
+        // consented at sign in, by an intent to participate (checkForConsent).
+        account.consented = Boolean.TRUE.equals(signUp.isConsent());
+        synchronized (accounts) {
+            if ((account.email != null && accountsByEmail.containsKey(account.email))
+                    || (account.phone != null && accountsByPhone.containsKey(account.phone.getNumber()))) {
+                throw new StandInException(409, "EntityAlreadyExistsException", "Account already exists.");
+            }
+            addAccount(account);
+        }
+        return new Reply(201, ImmutableMap.of("id", account.id, "type", "IdentifierHolder"));
+    }
+
+    private void addAccount(Account account) {
+        accounts.put(account.id, account);
+        if (account.email != null) {
+            accountsByEmail.put(account.email, account);
+        }
+        if (account.phone != null) {
+            accountsByPhone.put(account.phone.getNumber(), account);
+        }
+    }
+
+    /**
+     * As on the real server, a pending intent to participate consents an unconsented account when it signs in,
+     * and the consent agreement is sent. Returns whether the account is now consented.
+     */
+    private boolean applyIntent(Account account) throws Exception {
+        IntentToParticipate intent = intents.remove(identifier(account.email, account.phone));
+        if (intent == null) {
+            // A concurrent sign in may have just applied it.
+            return account.consented;
+        }
+        account.consented = true;
+        sendMessage(channel(intent.getPhone()));
+        return true;
+    }
+
+    private Object deleteUser(Request request) {
+        Account account = accounts.remove(request.param("userId"));
+        if (account == null) {
+            throw notFound("Account");
+        }
+        if (account.email != null) {
+            accountsByEmail.remove(account.email, account);
+        }
+        if (account.phone != null) {
+            accountsByPhone.remove(account.phone.getNumber(), account);
+        }
+        if (account.sessionToken != null) {
+            sessions.remove(account.sessionToken);
+        }
+        registrations.values().removeIf(registration -> registration.userId.equals(account.id));
+        return message("User deleted.");
+    }
+
+    /** Intents are kept until an account with the same email or phone signs in, replacing earlier ones. */
+    private Object submitIntent(Request request) throws Exception {
+        IntentToParticipate intent = request.body(IntentToParticipate.class);
+        String identifier = identifier(intent.getEmail(), intent.getPhone());
+        if (identifier == null || intent.getSubpopGuid() == null || intent.getConsentSignature() == null) {
+            throw new StandInException(400, "InvalidEntityException", "IntentToParticipate is invalid.");
+        }
+        intents.put(identifier, intent);
+        sendMessage(channel(intent.getPhone()));
+        return new Reply(202, message("Intent to participate accepted."));
+    }
+
+    private void sendMessage(String channel) throws InterruptedException {
+        EndpointBehavior behavior = behaviors.getOrDefault("SEND:" + channel, EndpointBehavior.NONE);
+        long latency = behavior.sampleLatencyMillis();
+        if (latency > 0) {
+            Thread.sleep(latency);
+        }
+        if (behavior.sampleError()) {
+            throw new StandInException(behavior.getErrorStatus(), "BridgeServiceException", "Could not send "
+                    + channel + ".");
+        }
+        sentMessages.computeIfAbsent(channel, (key) -> new AtomicLong()).incrementAndGet();
+    }
+
+    private static String channel(Phone phone) {
+        return (phone != null) ? "sms" : "email";
+    }
+
+    private static String identifier(String email, Phone phone) {
+        return (phone != null) ? phone.getNumber() : email;
+    }
+
+    private Object getSelf(Request request) {
+        Account account = request.account;
+        Map<String, Object> participant = new LinkedHashMap<>();
+        participant.put("id", account.id);
+        participant.put("email", account.email);
+        participant.put("phone", account.phone);
+        participant.put("dataGroups", account.dataGroups);
+        participant.put("roles", account.roles);
+        participant.put("type", "StudyParticipant");
+        return participant;
+    }
+
+    private Object updateSelf(Request request) {
+        StudyParticipant participant = request.body(StudyParticipant.class);
+        Account account = request.account;
+        if (participant.getDataGroups() != null) {
+            account.dataGroups = ImmutableList.copyOf(participant.getDataGroups());
+            for (Registration registration : registrations.values()) {
+                if (registration.userId.equals(account.id)) {
+                    updateCriteriaSubscriptions(registration, account.dataGroups);
+                }
+            }
+        }
+        return session(account);
+    }
+
+    private Object createConfigElement(Request request) {
+        AppConfigElement element = request.body(AppConfigElement.class);
+        long revision = (element.getRevision() == null) ? 1L : element.getRevision();
+        if (configElements.putIfAbsent(element.getId() + ":" + revision, element) != null) {
+            throw new StandInException(409, "EntityAlreadyExistsException", "AppConfigElement already exists.");
+        }
+        return new Reply(201, ImmutableMap.of("version", 1L, "type", "VersionHolder"));
+    }
+
+    private Object getConfigElement(Request request) {
+        AppConfigElement element = configElements.get(request.param("id") + ":" + request.param("revision"));
+        if (element == null) {
+            throw notFound("AppConfigElement");
+        }
+        return element;
+    }
+
+    private Object deleteConfigElement(Request request) {
+        String prefix = request.param("id") + ":";
+        configElements.keySet().removeIf(key -> key.startsWith(prefix));
+        return message("App config element revisions deleted.");
+    }
+
+    private Object createAppConfig(Request request) {
+        AppConfig appConfig = request.body(AppConfig.class);
+        String guid = UUID.randomUUID().toString();
+        appConfig.setGuid(guid);
+        appConfig.setVersion(1L);
+        synchronized (appConfigs) {
+            appConfigs.put(guid, appConfig);
+        }
+        return new Reply(201, ImmutableMap.of("guid", guid, "version", 1L, "type", "GuidVersionHolder"));
+    }
+
+    /**
+     * Like Bridge, returns the oldest app config whose criteria match the caller. An unauthenticated caller
+     * has no data groups, so configs requiring a data group never match (but are still evaluated).
+     */
+    private Object resolveAppConfig(Request request) {
+        String userAgent = request.exchange.getRequestHeaders().getFirst("User-Agent");
+        Integer appVersion = null;
+        String osName = null;
+        Matcher matcher = (userAgent == null) ? null : USER_AGENT.matcher(userAgent);
+        if (matcher != null && matcher.find()) {
+            appVersion = Integer.parseInt(matcher.group(1));
+            osName = matcher.group(2);
+        }
+        List<String> languages = languages(request.exchange.getRequestHeaders().getFirst("Accept-Language"));
+
+        List<AppConfig> candidates;
+        synchronized (appConfigs) {
+            candidates = new ArrayList<>(appConfigs.values());
+        }
+        for (AppConfig appConfig : candidates) {
+            Criteria criteria = appConfig.getCriteria();
+            if (criteria == null || (matchesGroups(criteria, ImmutableList.of())
+                    && matchesVersion(criteria, osName, appVersion)
+                    && (criteria.getLanguage() == null || languages.contains(criteria.getLanguage())))) {
+                JsonObject json = RestUtils.GSON.toJsonTree(appConfig).getAsJsonObject();
+                JsonObject elements = new JsonObject();
+                if (appConfig.getConfigReferences() != null) {
+                    for (ConfigReference ref : appConfig.getConfigReferences()) {
+                        AppConfigElement element = configElements.get(ref.getId() + ":" + ref.getRevision());
+                        if (element != null) {
+                            elements.add(ref.getId(), RestUtils.GSON.toJsonTree(element.getData()));
+                        }
+                    }
+                }
+                json.add("configElements", elements);
+                return json;
+            }
+        }
+        throw notFound("AppConfig");
+    }
+
+    private Object createTopic(Request request) throws Exception {
+        NotificationTopic topic = request.body(NotificationTopic.class);
+        String guid = UUID.randomUUID().toString();
+        Tests.setVariableValueInObject(topic, "guid", guid);
+        synchronized (topics) {
+            topics.put(guid, topic);
+        }
+        return new Reply(201, ImmutableMap.of("guid", guid, "type", "GuidHolder"));
+    }
+
+    private Object createRegistration(Request request) {
+        NotificationRegistration body = request.body(NotificationRegistration.class);
+        if (body.getEndpoint() == null) {
+            throw new StandInException(400, "InvalidEntityException", "endpoint is required.");
+        }
+        Registration registration = new Registration(request.account.id);
+        registrations.put(registration.guid, registration);
+        updateCriteriaSubscriptions(registration, request.account.dataGroups);
+        return new Reply(201, ImmutableMap.of("guid", registration.guid, "type", "GuidHolder"));
+    }
+
+    private Object deleteRegistration(Request request) {
+        registrations.remove(findRegistration(request).guid);
+        return message("Push notification registration deleted.");
+    }
+
+    private Object getSubscriptions(Request request) {
+        return subscriptionStatuses(findRegistration(request));
+    }
+
+    /** The request lists every manually managed topic the registration should be subscribed to. */
+    private Object subscribe(Request request) {
+        Registration registration = findRegistration(request);
+        SubscriptionRequest body = request.body(SubscriptionRequest.class);
+        List<String> topicGuids = (body.getTopicGuids() == null) ? ImmutableList.of() : body.getTopicGuids();
+        for (NotificationTopic topic : topicSnapshot()) {
+            if (topic.getCriteria() == null) {
+                registration.change(topic.getGuid(), topicGuids.contains(topic.getGuid()), convergenceMillis);
+            }
+        }
+        return subscriptionStatuses(registration);
+    }
+
+    private void updateCriteriaSubscriptions(Registration registration, List<String> dataGroups) {
+        for (NotificationTopic topic : topicSnapshot()) {
+            if (topic.getCriteria() != null) {
+                registration.change(topic.getGuid(), matchesGroups(topic.getCriteria(), dataGroups),
+                        convergenceMillis);
+            }
+        }
+    }
+
+    private Map<String, Object> subscriptionStatuses(Registration registration) {
+        List<Map<String, Object>> items = new ArrayList<>();
+        for (NotificationTopic topic : topicSnapshot()) {
+            items.add(ImmutableMap.of("topicGuid", topic.getGuid(), "topicName", topic.getName(),
+                    "subscribed", registration.isSubscribed(topic.getGuid()), "type", "SubscriptionStatus"));
+        }
+        return ImmutableMap.of("items", items, "type", "SubscriptionStatusList");
+    }
+
+    private Registration findRegistration(Request request) {
+        Registration registration = registrations.get(request.param("guid"));
+        if (registration == null || !registration.userId.equals(request.account.id)) {
+            throw notFound("NotificationRegistration");
+        }
+        return registration;
+    }
+
+    private List<NotificationTopic> topicSnapshot() {
+        synchronized (topics) {
+            return new ArrayList<>(topics.values());
+        }
+    }
+
+    private Object requestUpload(Request request) {
+        UploadRequest uploadRequest = request.body(UploadRequest.class);
+        Upload upload = new Upload(request.account.id, uploadRequest.getContentMd5());
+        uploads.put(upload.id, upload);
+        Map<String, Object> session = new LinkedHashMap<>();
+        session.put("id", upload.id);
+        session.put("url", getBaseUrl() + "/s3/" + upload.id);
+        session.put("expires", Instant.now().plus(1, ChronoUnit.DAYS).toString());
+        session.put("type", "UploadSession");
+        return new Reply(201, session);
+    }
+
+    /** Like S3, the content is checked against the MD5 the upload was requested with. It is never buffered. */
+    private Object receiveUploadContent(Request request) throws Exception {
+        Upload upload = uploads.get(request.param("uploadId"));
+        if (upload == null) {
+            throw new StandInException(403, "AccessDenied", "Unknown upload.");
+        }
+        MessageDigest digest = MessageDigest.getInstance("MD5");
+        try (InputStream in = request.exchange.getRequestBody()) {
+            byte[] buffer = new byte[8192];
+            int count;
+            while ((count = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, count);
+            }
+        }
+        String contentMd5 = Base64.getEncoder().encodeToString(digest.digest());
+        if (upload.contentMd5 != null && !upload.contentMd5.equals(contentMd5)) {
+            throw new StandInException(400, "BadDigest",
+                    "The Content-MD5 you specified did not match what we received.");
+        }
+        upload.contentReceived = true;
+        return message("Stored.");
+    }
+
+    /** Synchronous completion returns the final status at once; otherwise validation takes the convergence delay. */
+    private Object completeUpload(Request request) {
+        Upload upload = findUpload(request);
+        if (!upload.contentReceived) {
+            throw new StandInException(400, "BadRequestException", "Upload content has not been received.");
+        }
+        String query = request.exchange.getRequestURI().getRawQuery();
+        boolean synchronous = query != null && query.contains("synchronous=true");
+        if (!upload.completed) {
+            upload.completedAtNanos = System.nanoTime() - (synchronous ? convergenceMillis * 1000000L : 0L);
+            upload.completed = true;
+        }
+        return uploadStatus(upload);
+    }
+
+    private Object getUploadStatus(Request request) {
+        return uploadStatus(findUpload(request));
+    }
+
+    private Upload findUpload(Request request) {
+        Upload upload = uploads.get(request.param("uploadId"));
+        if (upload == null || !upload.userId.equals(request.account.id)) {
+            throw notFound("Upload");
+        }
+        return upload;
+    }
+
+    private Map<String, Object> uploadStatus(Upload upload) {
+        String status = "requested";
+        if (upload.completed) {
+            boolean validated = System.nanoTime() - upload.completedAtNanos >= convergenceMillis * 1000000L;
+            status = validated ? "succeeded" : "validation_in_progress";
+        }
+        return ImmutableMap.of("id", upload.id, "status", status, "messageList", ImmutableList.of(),
+                "type", "UploadValidationStatus");
+    }
+
+    private static boolean matchesGroups(Criteria criteria, List<String> dataGroups) {
+        if (criteria.getAllOfGroups() != null && !dataGroups.containsAll(criteria.getAllOfGroups())) {
+            return false;
+        }
+        if (criteria.getNoneOfGroups() != null) {
+            for (String group : criteria.getNoneOfGroups()) {
+                if (dataGroups.contains(group)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private static boolean matchesVersion(Criteria criteria, String osName, Integer appVersion) {
+        if (osName == null || appVersion == null) {
+            return true;
+        }
+        Integer min = (criteria.getMinAppVersions() == null) ? null : criteria.getMinAppVersions().get(osName);
+        Integer max = (criteria.getMaxAppVersions() == null) ? null : criteria.getMaxAppVersions().get(osName);
+        return (min == null || appVersion >= min) && (max == null || appVersion <= max);
+    }
+
+    private static List<String> languages(String acceptLanguage) {
+        List<String> languages = new ArrayList<>();
+        if (acceptLanguage != null) {
+            for (String range : acceptLanguage.split(",")) {
+                String language = range.split(";")[0].trim().split("-")[0].toLowerCase();
+                if (!language.isEmpty()) {
+                    languages.add(language);
+                }
+            }
+        }
+        return languages;
+    }
+
+    private static Map<String, Object> session(Account account) {
+        Map<String, Object> session = new LinkedHashMap<>();
+        session.put("id", account.id);
+        session.put("email", account.email);
+        session.put("phone", account.phone);
+        session.put("sessionToken", account.sessionToken);
+        session.put("authenticated", true);
+        session.put("consented", account.consented);
+        session.put("signedMostRecentConsent", account.consented);
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("subpopulationGuid", TEST_APP_ID);
+        status.put("required", true);
+        status.put("consented", account.consented);
+        status.put("signedMostRecentConsent", account.consented);
+        status.put("type", "ConsentStatus");
+        session.put("consentStatuses", ImmutableMap.of(TEST_APP_ID, status));
+        session.put("dataGroups", account.dataGroups);
+        session.put("roles", account.roles);
+        session.put("type", "UserSessionInfo");
+        return session;
+    }
+
+    private static <T> Map<String, Object> list(Map<String, T> map) {
+        synchronized (map) {
+            return ImmutableMap.of("items", new ArrayList<>(map.values()), "type", "ResourceList");
+        }
+    }
+
+    private static <T> T find(Map<String, T> map, String key) {
+        synchronized (map) {
+            T value = map.get(key);
+            if (value == null) {
+                throw notFound("Entity");
+            }
+            return value;
+        }
+    }
+
+    private static Object delete(Map<String, ?> map, String key) {
+        synchronized (map) {
+            if (map.remove(key) == null) {
+                throw notFound("Entity");
+            }
+        }
+        return message("Deleted.");
+    }
+
+    private static Map<String, Object> message(String message) {
+        return ImmutableMap.of("message", message, "type", "StatusMessage");
+    }
+
+    private static StandInException notFound(String entity) {
+        return new StandInException(404, "EntityNotFoundException", entity + " not found.");
+    }
+
+    private static String readBody(HttpExchange exchange) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int count;
+            while ((count = in.read(buffer)) != -1) {
+                out.write(buffer, 0, count);
+            }
+            return new String(out.toByteArray(), UTF_8);
+        }
+    }
+
+    private static void sendError(HttpExchange exchange, int status, String type, String message) throws IOException {
+        Map<String, Object> error = new HashMap<>();
+        error.put("statusCode", status);
+        error.put("message", message);
+        error.put("type", type);
+        send(exchange, status, RestUtils.GSON.toJson(error));
+    }
+
+    private static void send(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] bytes = json.getBytes(UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=UTF-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private interface Handler {
+        Object handle(Request request) throws Exception;
+    }
+
+    private static class Route {
+        private final String name;
+        private final String method;
+        private final Pattern pattern;
+        private final List<String> variables;
+        private final boolean authenticated;
+        private final Handler handler;
+
+        Route(String name, String method, Pattern pattern, List<String> variables, boolean authenticated,
+                Handler handler) {
+            this.name = name;
+            this.method = method;
+            this.pattern = pattern;
+            this.variables = variables;
+            this.authenticated = authenticated;
+            this.handler = handler;
+        }
+    }
+
+    private static class Request {
+        private final HttpExchange exchange;
+        private final Map<String, String> params = new HashMap<>();
+        private String body;
+        private Account account;
+
+        Request(HttpExchange exchange) {
+            this.exchange = exchange;
+        }
+
+        String param(String name) {
+            return params.get(name);
+        }
+
+        /** JSON bodies are read on first use, so handlers can stream large bodies instead. */
+        <T> T body(Class<T> cls) {
+            if (body == null) {
+                try {
+                    body = readBody(exchange);
+                } catch(IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            T value = RestUtils.GSON.fromJson(body, cls);
+            if (value == null) {
+                throw new StandInException(400, "BadRequestException", "Expected a JSON body.");
+            }
+            return value;
+        }
+    }
+
+    private static class Reply {
+        private final int status;
+        private final Object body;
+
+        Reply(int status, Object body) {
+            this.status = status;
+            this.body = body;
+        }
+    }
+
+    private static class Account {
+        private final String id = UUID.randomUUID().toString();
+        private String email;
+        private Phone phone;
+        private String password = PASSWORD;
+        private volatile List<Role> roles = ImmutableList.of();
+        private volatile List<String> dataGroups = ImmutableList.of();
+        private volatile boolean consented = true;
+        private volatile String sessionToken;
+    }
+
+    /**
+     * Subscription state per topic. A change is recorded with the time it becomes visible; until then reads
+     * return the previous state.
+     */
+    private static class Registration {
+        private final String guid = UUID.randomUUID().toString();
+        private final String userId;
+        private final Map<String, boolean[]> states = new HashMap<>();
+        private final Map<String, Long> visibleAt = new HashMap<>();
+
+        Registration(String userId) {
+            this.userId = userId;
+        }
+
+        synchronized void change(String topicGuid, boolean subscribed, long delayMillis) {
+            boolean[] state = states.computeIfAbsent(topicGuid, (key) -> new boolean[2]);
+            applyIfDue(topicGuid, state);
+            state[1] = subscribed;
+            visibleAt.put(topicGuid, System.nanoTime() + delayMillis * 1000000L);
+        }
+
+        synchronized boolean isSubscribed(String topicGuid) {
+            boolean[] state = states.get(topicGuid);
+            if (state == null) {
+                return false;
+            }
+            applyIfDue(topicGuid, state);
+            return state[0];
+        }
+
+        /** state[0] is what reads return, state[1] is the pending value. */
+        private void applyIfDue(String topicGuid, boolean[] state) {
+            Long due = visibleAt.get(topicGuid);
+            if (due != null && System.nanoTime() >= due) {
+                state[0] = state[1];
+                visibleAt.remove(topicGuid);
+            }
+        }
+    }
+
+    private static class Upload {
+        private final String id = UUID.randomUUID().toString();
+        private final String userId;
+        private final String contentMd5;
+        private volatile boolean contentReceived;
+        private volatile boolean completed;
+        private volatile long completedAtNanos;
+
+        Upload(String userId, String contentMd5) {
+            this.userId = userId;
+            this.contentMd5 = contentMd5;
+        }
+    }
+
+    private static class StandInException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+        private final int status;
+        private final String type;
+
+        StandInException(int status, String type, String message) {
+            super(message);
+            this.status = status;
+            this.type = type;
+        }
+    }
+}
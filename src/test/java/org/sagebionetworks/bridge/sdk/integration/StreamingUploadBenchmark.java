@@ -0,0 +1,118 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.util.Base64;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import com.sun.net.httpserver.HttpServer;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.sagebionetworks.bridge.rest.RestUtils;
+
+/**
+ * Whole-file against streaming uploads for files from 1MB to 2GB: the Content-MD5 computation on its own (the
+ * byte[] path used by UploadTest and RestUtils, chunked and memory-mapped reads), and the full MD5 plus PUT
+ * to a local sink standing in for the pre-signed S3 URL. The profile's GC profiler reports the heap cost as
+ * gc.alloc.rate.norm; to see where a constrained client falls over, cap the heap with
+ * -DjmhArgs="-jvmArgsAppend -Xmx256m". The whole-file variants can't handle the 2048MB case at any heap size,
+ * since a byte[] tops out just under 2GB. Needs free disk for the test file; run with
+ * -Dbenchmark=StreamingUpload.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+public class StreamingUploadBenchmark {
+    private static final String CONTENT_TYPE = "application/zip";
+
+    @Param({"1", "64", "512", "2048"})
+    public int sizeMb;
+
+    private File file;
+    private HttpServer sink;
+    private ExecutorService sinkExecutor;
+    private String url;
+
+    @Setup
+    public void setup() throws Exception {
+        file = File.createTempFile("streaming-upload", ".zip");
+        byte[] block = new byte[1024 * 1024];
+        Random random = new Random(sizeMb);
+        try (OutputStream out = new FileOutputStream(file)) {
+            for (int i = 0; i < sizeMb; i++) {
+                random.nextBytes(block);
+                out.write(block);
+            }
+        }
+
+        sink = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        sink.createContext("/", (exchange) -> {
+            try (InputStream in = exchange.getRequestBody()) {
+                byte[] buffer = new byte[StreamingUploader.CHUNK_SIZE];
+                while (in.read(buffer) != -1) {
+                    // Drain the upload.
+                }
+            }
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+        });
+        sinkExecutor = Executors.newFixedThreadPool(2);
+        sink.setExecutor(sinkExecutor);
+        sink.start();
+        url = "http://localhost:" + sink.getAddress().getPort() + "/s3/upload";
+    }
+
+    @TearDown
+    public void tearDown() {
+        sink.stop(0);
+        sinkExecutor.shutdownNow();
+        file.delete();
+    }
+
+    @Benchmark
+    public String md5WholeFile() throws Exception {
+        return Base64.getEncoder().encodeToString(DigestUtils.md5(Files.readAllBytes(file.toPath())));
+    }
+
+    @Benchmark
+    public String md5Chunked() throws Exception {
+        return StreamingUploader.contentMd5(file);
+    }
+
+    @Benchmark
+    public String md5Mapped() throws Exception {
+        return StreamingUploader.contentMd5Mapped(file);
+    }
+
+    @Benchmark
+    public void uploadWholeFile() throws Exception {
+        RestUtils.uploadToS3(file, url, CONTENT_TYPE);
+    }
+
+    @Benchmark
+    public void uploadStreaming() throws Exception {
+        StreamingUploader.uploadToPresignedUrl(file, url, CONTENT_TYPE, StreamingUploader.contentMd5(file));
+    }
+}
@@ -0,0 +1,106 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+
+import org.apache.http.HttpResponse;
+import org.apache.http.client.fluent.Request;
+import org.apache.http.entity.ContentType;
+import org.apache.http.util.EntityUtils;
+
+import org.sagebionetworks.bridge.rest.api.ForConsentedUsersApi;
+import org.sagebionetworks.bridge.rest.model.UploadRequest;
+import org.sagebionetworks.bridge.rest.model.UploadSession;
+
+/**
+ * Upload path that never holds the file in memory. RestUtils.makeUploadRequestForFile and uploadToS3 read the
+ * whole file into a byte[] to compute its MD5 and again to send it, which runs clients out of heap on the
+ * multi-hundred-MB archives sensor studies produce (and can't work at all past 2GB). Here the MD5 is computed
+ * incrementally, either in fixed chunks through a direct buffer or over memory-mapped regions, and the file is
+ * streamed to the pre-signed URL with a fixed Content-Length.
+ */
+public class StreamingUploader {
+    static final int CHUNK_SIZE = 64 * 1024;
+    static final long MAPPED_REGION_SIZE = 64L * 1024 * 1024;
+
+    /** Base64-encoded MD5 of the file, read in CHUNK_SIZE pieces. */
+    public static String contentMd5(File file) throws IOException {
+        MessageDigest digest = md5();
+        ByteBuffer buffer = ByteBuffer.allocateDirect(CHUNK_SIZE);
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            while (channel.read(buffer) != -1) {
+                buffer.flip();
+                digest.update(buffer);
+                buffer.clear();
+            }
+        }
+        return Base64.getEncoder().encodeToString(digest.digest());
+    }
+
+    /** Base64-encoded MD5 of the file, read through memory-mapped regions of MAPPED_REGION_SIZE. */
+    public static String contentMd5Mapped(File file) throws IOException {
+        MessageDigest digest = md5();
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            for (long position = 0; position < size; position += MAPPED_REGION_SIZE) {
+                MappedByteBuffer region = channel.map(FileChannel.MapMode.READ_ONLY, position,
+                        Math.min(MAPPED_REGION_SIZE, size - position));
+                digest.update(region);
+            }
+        }
+        return Base64.getEncoder().encodeToString(digest.digest());
+    }
+
+    public static UploadRequest makeUploadRequest(File file, String contentType, boolean encrypted, boolean zipped)
+            throws IOException {
+        UploadRequest request = new UploadRequest();
+        request.setName(file.getName());
+        request.setContentLength(file.length());
+        request.setContentMd5(contentMd5(file));
+        request.setContentType(contentType);
+        request.setEncrypted(encrypted);
+        request.setZipped(zipped);
+        return request;
+    }
+
+    /**
+     * PUT the file to a pre-signed URL. The content type and MD5 must match the upload request, since the URL
+     * is signed with both.
+     */
+    public static void uploadToPresignedUrl(File file, String url, String contentType, String contentMd5)
+            throws IOException {
+        HttpResponse response = Request.Put(url)
+                .setHeader("Content-MD5", contentMd5)
+                .bodyFile(file, ContentType.create(contentType))
+                .execute().returnResponse();
+        int status = response.getStatusLine().getStatusCode();
+        if (status != 200) {
+            String body = (response.getEntity() == null) ? "" : EntityUtils.toString(response.getEntity());
+            throw new IOException("Upload to " + url + " failed with HTTP " + status + ": " + body);
+        }
+    }
+
+    /** The streaming equivalent of RestUtils.upload: request a session for an encrypted zip, upload, complete. */
+    public static UploadSession upload(ForConsentedUsersApi api, File file) throws IOException {
+        UploadRequest request = makeUploadRequest(file, "application/zip", true, true);
+        UploadSession session = api.requestUploadSession(request).execute().body();
+        uploadToPresignedUrl(file, session.getUrl(), request.getContentType(), request.getContentMd5());
+        api.completeUploadSession(session.getId(), false, false).execute();
+        return session;
+    }
+
+    private static MessageDigest md5() {
+        try {
+            return MessageDigest.getInstance("MD5");
+        } catch(NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
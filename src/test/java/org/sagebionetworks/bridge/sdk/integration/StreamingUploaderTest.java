@@ -0,0 +1,80 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.util.Random;
+
+import com.google.common.io.Files;
+import org.apache.commons.codec.binary.Base64;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.sagebionetworks.bridge.rest.model.UploadRequest;
+
+/**
+ * Checks StreamingUploader's incremental Content-MD5 against DigestUtils.md5 of the whole file, the way
+ * UploadTest.notEncryptedNotZipped computes it, at sizes around the chunk boundaries. Runs without a server.
+ */
+public class StreamingUploaderTest {
+    private File file;
+
+    @Before
+    public void before() throws Exception {
+        file = File.createTempFile("StreamingUploaderTest", ".bin");
+    }
+
+    @After
+    public void after() {
+        file.delete();
+    }
+
+    @Test
+    public void emptyFile() throws Exception {
+        assertMd5Matches(new byte[0]);
+    }
+
+    @Test
+    public void smallerThanAChunk() throws Exception {
+        assertMd5Matches("dummy content".getBytes());
+    }
+
+    @Test
+    public void exactlyOneChunk() throws Exception {
+        assertMd5Matches(content(StreamingUploader.CHUNK_SIZE));
+    }
+
+    @Test
+    public void severalChunksAndARemainder() throws Exception {
+        assertMd5Matches(content(StreamingUploader.CHUNK_SIZE * 3 + 17));
+    }
+
+    @Test
+    public void makeUploadRequest() throws Exception {
+        byte[] content = content(StreamingUploader.CHUNK_SIZE + 1);
+        Files.write(content, file);
+
+        UploadRequest request = StreamingUploader.makeUploadRequest(file, "text/plain", false, true);
+        assertEquals(file.getName(), request.getName());
+        assertEquals(Long.valueOf(content.length), request.getContentLength());
+        assertEquals(Base64.encodeBase64String(DigestUtils.md5(content)), request.getContentMd5());
+        assertEquals("text/plain", request.getContentType());
+        assertEquals(Boolean.FALSE, request.isEncrypted());
+        assertEquals(Boolean.TRUE, request.isZipped());
+    }
+
+    private void assertMd5Matches(byte[] content) throws Exception {
+        Files.write(content, file);
+        String expected = Base64.encodeBase64String(DigestUtils.md5(content));
+        assertEquals(expected, StreamingUploader.contentMd5(file));
+        assertEquals(expected, StreamingUploader.contentMd5Mapped(file));
+    }
+
+    private static byte[] content(int size) {
+        byte[] content = new byte[size];
+        new Random(size).nextBytes(content);
+        return content;
+    }
+}
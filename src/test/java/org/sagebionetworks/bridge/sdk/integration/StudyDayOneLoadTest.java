@@ -0,0 +1,92 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+import static org.sagebionetworks.bridge.rest.model.ActivityEventUpdateType.MUTABLE;
+import static org.sagebionetworks.bridge.sdk.integration.LoadTestHelper.intProperty;
+import static org.sagebionetworks.bridge.sdk.integration.ParticipantJourneys.CONSENTED;
+import static org.sagebionetworks.bridge.sdk.integration.ParticipantJourneys.STUDY_ID;
+import static org.sagebionetworks.bridge.sdk.integration.ParticipantJourneys.USER;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import org.sagebionetworks.bridge.rest.api.ForAdminsApi;
+import org.sagebionetworks.bridge.rest.api.ForDevelopersApi;
+import org.sagebionetworks.bridge.rest.model.App;
+import org.sagebionetworks.bridge.rest.model.Role;
+import org.sagebionetworks.bridge.user.TestUserHelper;
+import org.sagebionetworks.bridge.user.TestUserHelper.TestUser;
+
+/**
+ * Models the first day of a study: participants arrive over a ramp-up period, create an account, most of them
+ * consent, then look at their activity events and timeline, record an event, upload a survey and save a report,
+ * with think times in between. The journey is declared with Journey and the steps come from
+ * ParticipantJourneys. Latency and errors are reported per step, plus the whole journey.
+ */
+@Category(LoadTest.class)
+public class StudyDayOneLoadTest {
+    private static final String CUSTOM_EVENT_ID = "event1";
+
+    private static final int PARTICIPANTS = intProperty("participants", 50);
+    private static final int CONCURRENCY = intProperty("concurrentParticipants", 25);
+    private static final int RAMP_MILLIS = intProperty("rampMillis", 30000);
+    private static final int THINK_MIN_MILLIS = intProperty("thinkMinMillis", 500);
+    private static final int THINK_MAX_MILLIS = intProperty("thinkMaxMillis", 3000);
+
+    private TestUser developer;
+    private String reportId;
+    private List<JourneyContext> contexts = new ArrayList<>();
+
+    @Before
+    public void before() throws Exception {
+        developer = TestUserHelper.createAndSignInUser(StudyDayOneLoadTest.class, false, Role.DEVELOPER);
+        reportId = Tests.randomIdentifier(StudyDayOneLoadTest.class);
+
+        // As in ActivityEventTest, make sure the app declares the custom event.
+        ForDevelopersApi developersApi = developer.getClient(ForDevelopersApi.class);
+        App app = developersApi.getUsersApp().execute().body();
+        if (app.getCustomEvents().get(CUSTOM_EVENT_ID) != MUTABLE) {
+            app.getCustomEvents().put(CUSTOM_EVENT_ID, MUTABLE);
+            developersApi.updateUsersApp(app).execute();
+        }
+    }
+
+    @After
+    public void after() throws Exception {
+        ForDevelopersApi developerApi = developer.getClient(ForDevelopersApi.class);
+        for (JourneyContext context : contexts) {
+            TestUser user = context.get(USER);
+            if (user != null) {
+                developerApi.deleteAllParticipantReportRecords(user.getUserId(), reportId).execute();
+                user.signOutAndDeleteUser();
+            }
+        }
+        TestUserHelper.getSignedInAdmin().getClient(ForAdminsApi.class).deleteParticipantReportIndex(reportId)
+                .execute();
+        developer.signOutAndDeleteUser();
+    }
+
+    @Test
+    public void dayOneOfAStudy() throws Exception {
+        ParticipantJourneys steps = new ParticipantJourneys(StudyDayOneLoadTest.class, CUSTOM_EVENT_ID, reportId);
+        Journey dayOne = Journey.named("dayOne")
+                .rampUp(RAMP_MILLIS)
+                .step("createAccount", steps::createAccount)
+                .thinkTime(THINK_MIN_MILLIS, THINK_MAX_MILLIS)
+                .step("consent", 0.9, steps::consent).requires(USER)
+                .thinkTime(THINK_MIN_MILLIS, THINK_MAX_MILLIS)
+                .step("getActivityEvents", steps::getActivityEvents).requires(CONSENTED)
+                .step("getTimeline", steps::getTimeline).requires(CONSENTED, STUDY_ID)
+                .thinkTime(THINK_MIN_MILLIS, THINK_MAX_MILLIS)
+                .step("createCustomEvent", 0.5, steps::createCustomEvent).requires(CONSENTED)
+                .step("upload", 0.7, steps::upload).requires(CONSENTED)
+                .thinkTime(THINK_MIN_MILLIS, THINK_MAX_MILLIS)
+                .step("saveReport", 0.3, steps::saveReport).requires(CONSENTED);
+
+        contexts = dayOne.run(PARTICIPANTS, CONCURRENCY, new LatencyRecorder());
+    }
+}
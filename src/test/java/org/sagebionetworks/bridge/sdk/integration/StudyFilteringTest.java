@@ -155,8 +155,10 @@ public class StudyFilteringTest {
         } catch(EntityNotFoundException e) {
         }
         // Coordinator 2 should be able to get only study 2 accounts (even if mixed)
-        coordinatorsApiFor2.getStudyParticipantById(STUDY_ID_2, user2.getId(), false).execute().body();
-        coordinatorsApiFor2.getStudyParticipantById(STUDY_ID_2, user1and2.getId(), false).execute().body();
+        AsyncCalls async = new AsyncCalls();
+        AsyncCalls.awaitAll(
+                async.enqueue(coordinatorsApiFor2.getStudyParticipantById(STUDY_ID_2, user2.getId(), false)),
+                async.enqueue(coordinatorsApiFor2.getStudyParticipantById(STUDY_ID_2, user1and2.getId(), false)));
         
         // This should apply to any call involving user in another study, try one (fully tested in 
         // the unit tests)
@@ -183,28 +185,28 @@ public class StudyFilteringTest {
         ClientManager manager = new ClientManager.Builder().withSignIn(researcher1).build();
         ForResearchersApi researchersApiFor1 = manager.getClient(ForResearchersApi.class);
         
-        // Researcher 1 sees all users
-        AccountSummaryList list = researchersApiFor1.searchAccountSummaries(
-                new AccountSummarySearch()).execute().body();
-        assertListContainsAccount(list.getItems(), STUDY_ID_1, user1.getId());
-        assertListContainsAccount(list.getItems(), STUDY_ID_1, user1and2.getId());
-        assertListContainsAccount(list.getItems(), STUDY_ID_2, user1and2.getId());
-        assertListContainsAccount(list.getItems(), STUDY_ID_2, user2.getId());
-        
         // Researcher 2
         manager = new ClientManager.Builder().withSignIn(researcher2).build();
         ForResearchersApi researchersApiFor2 = manager.getClient(ForResearchersApi.class);
         
-        // Researcher 2 sees all users
-        list = researchersApiFor2.searchAccountSummaries(new AccountSummarySearch()).execute().body();
-        assertListContainsAccount(list.getItems(), STUDY_ID_1, user1.getId());
-        assertListContainsAccount(list.getItems(), STUDY_ID_1, user1and2.getId());
-        assertListContainsAccount(list.getItems(), STUDY_ID_2, user1and2.getId());
-        assertListContainsAccount(list.getItems(), STUDY_ID_2, user2.getId());
+        // Both researchers' lists are read together
+        AsyncCalls async = new AsyncCalls();
+        List<AccountSummaryList> lists = AsyncCalls.awaitAll(ImmutableList.of(
+                async.body(researchersApiFor1.searchAccountSummaries(new AccountSummarySearch())),
+                async.body(researchersApiFor2.searchAccountSummaries(new AccountSummarySearch()))));
+        
+        // Researcher 1 and researcher 2 see all users
+        for (AccountSummaryList list : lists) {
+            assertListContainsAccount(list.getItems(), STUDY_ID_1, user1.getId());
+            assertListContainsAccount(list.getItems(), STUDY_ID_1, user1and2.getId());
+            assertListContainsAccount(list.getItems(), STUDY_ID_2, user1and2.getId());
+            assertListContainsAccount(list.getItems(), STUDY_ID_2, user2.getId());
+        }
         
         // Researcher 2 can get a study 1 account (we don't need to test the reverse)
-        researchersApiFor2.getParticipantById(user1.getId(), false).execute().body();
-        researchersApiFor2.getActivityEventsForParticipant(user1.getId()).execute();
+        AsyncCalls.awaitAll(
+                async.enqueue(researchersApiFor2.getParticipantById(user1.getId(), false)),
+                async.enqueue(researchersApiFor2.getActivityEventsForParticipant(user1.getId())));
     }
     
     // AppConfigs: while these have criteria, they can only be filtered by data that does 
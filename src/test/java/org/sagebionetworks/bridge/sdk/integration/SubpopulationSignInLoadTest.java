@@ -0,0 +1,157 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+import static org.sagebionetworks.bridge.rest.model.Role.DEVELOPER;
+import static org.sagebionetworks.bridge.sdk.integration.LoadTestHelper.intListProperty;
+import static org.sagebionetworks.bridge.sdk.integration.LoadTestHelper.intProperty;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.sagebionetworks.bridge.rest.api.AuthenticationApi;
+import org.sagebionetworks.bridge.rest.api.ForAdminsApi;
+import org.sagebionetworks.bridge.rest.api.SubpopulationsApi;
+import org.sagebionetworks.bridge.rest.exceptions.EntityNotFoundException;
+import org.sagebionetworks.bridge.rest.model.Criteria;
+import org.sagebionetworks.bridge.rest.model.SignUp;
+import org.sagebionetworks.bridge.rest.model.Subpopulation;
+import org.sagebionetworks.bridge.rest.model.UserSessionInfo;
+import org.sagebionetworks.bridge.user.TestUserHelper;
+import org.sagebionetworks.bridge.user.TestUserHelper.TestUser;
+
+/**
+ * Measures what the app's subpopulations cost at sign-in, where the criteria of every subpopulation are evaluated
+ * to work out the participant's consent statuses (SubpopulationTest, StudyFilteringTest.filterSubpopulations).
+ * Optional subpopulations are added in steps up to each of loadtest.subpopulationCounts, rotating through three
+ * kinds of criteria: a data group (sdk-int-1), a language (fr), and app version ranges wide enough to match any
+ * client. At each step, participants of three profiles sign in with signInV4:
+ *
+ * <ul>
+ *   <li>"app versions": no data groups, English, so only the app version subpopulations match;</li>
+ *   <li>"app versions + data group": in sdk-int-1, so two thirds of the subpopulations match;</li>
+ *   <li>"all": in sdk-int-1 and French, so every subpopulation matches.</li>
+ * </ul>
+ *
+ * The REST client only exposes consent statuses through the session, so they are read from each signInV4 response
+ * and the mean number per profile is logged next to the latency. The default subpopulation, which InitListener
+ * sets up, is left alone.
+ */
+@Category(LoadTest.class)
+public class SubpopulationSignInLoadTest {
+    private static final Logger LOG = LoggerFactory.getLogger(SubpopulationSignInLoadTest.class);
+
+    private static final List<Integer> SUBPOPULATION_COUNTS = intListProperty("subpopulationCounts", "5,25,100");
+    private static final int PARTICIPANTS_PER_PROFILE = intProperty("participantsPerProfile", 3);
+    private static final int SIGN_INS_PER_STEP = intProperty("signInsPerStep", 100);
+    private static final int THREADS = intProperty("threads", 8);
+    private static final String DATA_GROUP = "sdk-int-1";
+    private static final String LANGUAGE = "fr";
+
+    private TestUser developer;
+    private final Map<String, List<TestUser>> profiles = new LinkedHashMap<>();
+    private final List<String> subpopGuids = new ArrayList<>();
+    private final LatencyRecorder recorder = new LatencyRecorder();
+
+    @Before
+    public void before() throws Exception {
+        developer = TestUserHelper.createAndSignInUser(SubpopulationSignInLoadTest.class, false, DEVELOPER);
+        addProfile("app versions", ImmutableList.of(), "en");
+        addProfile("app versions + data group", ImmutableList.of(DATA_GROUP), "en");
+        addProfile("all", ImmutableList.of(DATA_GROUP), LANGUAGE);
+    }
+
+    @After
+    public void after() throws Exception {
+        ForAdminsApi adminsApi = TestUserHelper.getSignedInAdmin().getClient(ForAdminsApi.class);
+        for (String guid : subpopGuids) {
+            try {
+                adminsApi.deleteSubpopulation(guid, true).execute();
+            } catch(EntityNotFoundException e) {
+                // this is okay
+            }
+        }
+        for (List<TestUser> users : profiles.values()) {
+            for (TestUser user : users) {
+                user.signOutAndDeleteUser();
+            }
+        }
+        if (developer != null) {
+            developer.signOutAndDeleteUser();
+        }
+    }
+
+    @Test
+    public void signInWithManySubpopulations() throws Exception {
+        SubpopulationsApi subpopulationsApi = developer.getClient(SubpopulationsApi.class);
+        for (int subpopulationCount : SUBPOPULATION_COUNTS) {
+            recorder.reset();
+            int existing = subpopGuids.size();
+            long elapsed = 0L;
+            if (subpopulationCount > existing) {
+                elapsed = LoadTestHelper.runConcurrently(THREADS, subpopulationCount - existing, (index) -> {
+                    Subpopulation subpop = new Subpopulation().name("SubpopulationSignInLoadTest " + index)
+                            .required(false).criteria(criteria(existing + index));
+                    String guid = recorder.time("createSubpopulation", () -> subpopulationsApi
+                            .createSubpopulation(subpop).execute().body().getGuid());
+                    synchronized (subpopGuids) {
+                        subpopGuids.add(guid);
+                    }
+                    return guid;
+                });
+            }
+            for (Map.Entry<String, List<TestUser>> entry : profiles.entrySet()) {
+                elapsed += signIn(entry.getKey(), entry.getValue());
+            }
+            recorder.log(LOG, subpopGuids.size() + " optional subpopulations", elapsed);
+        }
+    }
+
+    /** Sign in the profile's participants in rotation, logging the mean number of consent statuses returned. */
+    private long signIn(String profile, List<TestUser> users) throws Exception {
+        AtomicLong statuses = new AtomicLong();
+        long elapsed = LoadTestHelper.runConcurrently(THREADS, SIGN_INS_PER_STEP, (index) -> {
+            TestUser user = users.get(index % users.size());
+            UserSessionInfo session = recorder.time("signInV4 " + profile, () -> user
+                    .getClient(AuthenticationApi.class).signInV4(user.getSignIn()).execute().body());
+            statuses.addAndGet(session.getConsentStatuses().size());
+            return session;
+        });
+        long count = recorder.getSummary("signInV4 " + profile).getCount();
+        LOG.info("  {}: {} consent statuses per session", profile,
+                String.format("%.1f", (count == 0) ? 0d : statuses.get() / (double)count));
+        return elapsed;
+    }
+
+    private void addProfile(String profile, List<String> dataGroups, String language) throws Exception {
+        List<TestUser> users = new ArrayList<>();
+        profiles.put(profile, users);
+        for (int i = 0; i < PARTICIPANTS_PER_PROFILE; i++) {
+            SignUp signUp = new SignUp().dataGroups(dataGroups).languages(ImmutableList.of(language));
+            users.add(new TestUserHelper.Builder(SubpopulationSignInLoadTest.class).withConsentUser(true)
+                    .withSignUp(signUp).createAndSignInUser());
+        }
+    }
+
+    private static Criteria criteria(int index) {
+        switch (index % 3) {
+            case 0:
+                return new Criteria().allOfGroups(ImmutableList.of(DATA_GROUP));
+            case 1:
+                return new Criteria().language(LANGUAGE);
+            default:
+                return new Criteria().minAppVersions(ImmutableMap.of("Android", 0, "iPhone OS", 0))
+                        .maxAppVersions(ImmutableMap.of("Android", 100000, "iPhone OS", 100000));
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+import static org.sagebionetworks.bridge.rest.model.MimeType.TEXT_PLAIN;
+import static org.sagebionetworks.bridge.rest.model.Role.DEVELOPER;
+import static org.sagebionetworks.bridge.rest.model.Role.RESEARCHER;
+import static org.sagebionetworks.bridge.rest.model.TemplateType.EMAIL_SIGNED_CONSENT;
+import static org.sagebionetworks.bridge.rest.model.TemplateType.EMAIL_VERIFY_EMAIL;
+import static org.sagebionetworks.bridge.sdk.integration.LoadTestHelper.intListProperty;
+import static org.sagebionetworks.bridge.sdk.integration.LoadTestHelper.intProperty;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+import com.google.common.collect.ImmutableList;
+import org.joda.time.DateTime;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.sagebionetworks.bridge.rest.api.ForAdminsApi;
+import org.sagebionetworks.bridge.rest.api.ForDevelopersApi;
+import org.sagebionetworks.bridge.rest.api.ParticipantsApi;
+import org.sagebionetworks.bridge.rest.exceptions.EntityNotFoundException;
+import org.sagebionetworks.bridge.rest.model.ConsentStatus;
+import org.sagebionetworks.bridge.rest.model.Criteria;
+import org.sagebionetworks.bridge.rest.model.SignUp;
+import org.sagebionetworks.bridge.rest.model.Template;
+import org.sagebionetworks.bridge.rest.model.TemplateRevision;
+import org.sagebionetworks.bridge.rest.model.TemplateRevisionList;
+import org.sagebionetworks.bridge.rest.model.TemplateType;
+import org.sagebionetworks.bridge.user.TestUserHelper;
+import org.sagebionetworks.bridge.user.TestUserHelper.TestUser;
+
+/**
+ * Grows long revision histories on many templates and measures what that costs. For the email verification and
+ * signed consent template types, loadtest.templatesPerType templates are created in rotation over several
+ * languages (as in TemplateTest), and their revision histories grow through loadtest.revisionCounts. At each
+ * size this measures paging through a template's revisions (the first page and the deepest page are recorded
+ * separately), publishing a revision, and the sends that resolve the published template for those types:
+ * resending email verification and the consent agreement, as in ParticipantsTest.
+ *
+ * The templates' criteria all require the sdk-int-1 data group. The sends go to a participant in that group whose
+ * language is English, so they resolve the grown English templates (whose revisions are plain text with a
+ * ${url}) and every template's criteria are evaluated on the way. Sends do go out by email, so keep
+ * loadtest.sendsPerStep modest.
+ */
+@Category(LoadTest.class)
+public class TemplateRevisionLoadTest {
+    private static final Logger LOG = LoggerFactory.getLogger(TemplateRevisionLoadTest.class);
+
+    private static final List<TemplateType> TYPES = ImmutableList.of(EMAIL_VERIFY_EMAIL, EMAIL_SIGNED_CONSENT);
+    private static final List<String> LANGUAGES = ImmutableList.of("en", "fr", "de", "es", "zh", "ja");
+    private static final int TEMPLATES_PER_TYPE = intProperty("templatesPerType", 10);
+    private static final List<Integer> REVISION_COUNTS = intListProperty("revisionCounts", "10,100,300");
+    private static final int PAGE_SIZE = intProperty("pageSize", 50);
+    private static final int PUBLISHES_PER_STEP = intProperty("publishesPerStep", 50);
+    private static final int SENDS_PER_STEP = intProperty("sendsPerStep", 10);
+    private static final int THREADS = intProperty("threads", 8);
+    private static final String DATA_GROUP = "sdk-int-1";
+
+    private TestUser developer;
+    private TestUser researcher;
+    private TestUser participant;
+    private ForDevelopersApi developersApi;
+    private final List<String> templateGuids = new ArrayList<>();
+    private final Map<String, List<DateTime>> revisions = new ConcurrentHashMap<>();
+    private final LatencyRecorder recorder = new LatencyRecorder();
+
+    @Before
+    public void before() throws Exception {
+        developer = TestUserHelper.createAndSignInUser(TemplateRevisionLoadTest.class, true, DEVELOPER);
+        researcher = TestUserHelper.createAndSignInUser(TemplateRevisionLoadTest.class, true, RESEARCHER);
+        developersApi = developer.getClient(ForDevelopersApi.class);
+        SignUp signUp = new SignUp().dataGroups(ImmutableList.of(DATA_GROUP))
+                .languages(ImmutableList.of(LANGUAGES.get(0)));
+        participant = new TestUserHelper.Builder(TemplateRevisionLoadTest.class).withConsentUser(true)
+                .withSignUp(signUp).createAndSignInUser();
+    }
+
+    @After
+    public void after() throws Exception {
+        ForAdminsApi adminsApi = TestUserHelper.getSignedInAdmin().getClient(ForAdminsApi.class);
+        for (String guid : templateGuids) {
+            try {
+                adminsApi.deleteTemplate(guid, true).execute();
+            } catch(EntityNotFoundException e) {
+                // this is okay
+            }
+        }
+        if (participant != null) {
+            participant.signOutAndDeleteUser();
+        }
+        researcher.signOutAndDeleteUser();
+        developer.signOutAndDeleteUser();
+    }
+
+    @Test
+    public void longRevisionHistories() throws Exception {
+        for (TemplateType type : TYPES) {
+            for (int i = 0; i < TEMPLATES_PER_TYPE; i++) {
+                Criteria criteria = new Criteria().language(LANGUAGES.get(i % LANGUAGES.size()))
+                        .allOfGroups(ImmutableList.of(DATA_GROUP));
+                Template template = new Template().name("TemplateRevisionLoadTest " + type + " " + i)
+                        .description("TemplateRevisionLoadTest").templateType(type).criteria(criteria);
+                String guid = developersApi.createTemplate(template).execute().body().getGuid();
+                templateGuids.add(guid);
+                revisions.put(guid, new ArrayList<>());
+            }
+        }
+
+        for (int revisionCount : REVISION_COUNTS) {
+            recorder.reset();
+            int existing = revisions.get(templateGuids.get(0)).size();
+            int toCreate = revisionCount - existing;
+            long elapsed = 0L;
+            if (toCreate > 0) {
+                elapsed = LoadTestHelper.runConcurrently(THREADS, templateGuids.size(), (index) -> {
+                    String guid = templateGuids.get(index);
+                    for (int i = 0; i < toCreate; i++) {
+                        createRevision(guid, existing + i);
+                    }
+                    return null;
+                });
+            }
+            elapsed += LoadTestHelper.runConcurrently(THREADS, templateGuids.size(), (index) -> {
+                pageRevisions(templateGuids.get(index));
+                return null;
+            });
+            elapsed += LoadTestHelper.runConcurrently(THREADS, PUBLISHES_PER_STEP, (index) -> {
+                String guid = templateGuids.get(index % templateGuids.size());
+                List<DateTime> createdOns = revisions.get(guid);
+                DateTime createdOn = createdOns.get(ThreadLocalRandom.current().nextInt(createdOns.size()));
+                return recorder.time("publishTemplateRevision", () -> developersApi
+                        .publishTemplateRevision(guid, createdOn).execute());
+            });
+            elapsed += measureSends();
+            recorder.log(LOG, String.format("%d templates per type with %d revisions each", TEMPLATES_PER_TYPE,
+                    revisionCount), elapsed);
+        }
+    }
+
+    private void createRevision(String guid, int index) throws Exception {
+        TemplateRevision revision = new TemplateRevision().subject("Subject " + index)
+                .documentContent("Content " + index + " ${url}").mimeType(TEXT_PLAIN);
+        DateTime createdOn = recorder.time("createTemplateRevision", () -> developersApi
+                .createTemplateRevision(guid, revision).execute().body().getCreatedOn());
+        List<DateTime> createdOns = revisions.get(guid);
+        synchronized (createdOns) {
+            createdOns.add(createdOn);
+        }
+    }
+
+    /** Page through every revision, recording the first and the deepest page separately from the rest. */
+    private void pageRevisions(String guid) throws Exception {
+        TemplateRevisionList first = recorder.time("getTemplateRevisions first page", () -> developersApi
+                .getTemplateRevisions(guid, 0, PAGE_SIZE).execute().body());
+        int total = first.getTotal();
+        int deepestOffset = ((total - 1) / PAGE_SIZE) * PAGE_SIZE;
+        for (int offset = PAGE_SIZE; offset < total; offset += PAGE_SIZE) {
+            int offsetBy = offset;
+            String operation = (offset == deepestOffset) ? "getTemplateRevisions deepest page"
+                    : "getTemplateRevisions";
+            recorder.time(operation, () -> developersApi.getTemplateRevisions(guid, offsetBy, PAGE_SIZE)
+                    .execute().body());
+        }
+    }
+
+    private long measureSends() throws Exception {
+        String userId = participant.getSession().getId();
+        ConsentStatus status = participant.getSession().getConsentStatuses().values().iterator().next();
+        ParticipantsApi participantsApi = researcher.getClient(ParticipantsApi.class);
+        return LoadTestHelper.runConcurrently(THREADS, SENDS_PER_STEP, (index) -> {
+            if (index % 2 == 0) {
+                return recorder.time("sendParticipantEmailVerification", () -> participantsApi
+                        .sendParticipantEmailVerification(userId).execute());
+            }
+            return recorder.time("resendParticipantConsentAgreement", () -> participantsApi
+                    .resendParticipantConsentAgreement(userId, status.getSubpopulationGuid()).execute());
+        });
+    }
+}
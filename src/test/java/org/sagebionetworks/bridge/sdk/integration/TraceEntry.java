@@ -0,0 +1,124 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CodingErrorAction;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * One request/response exchange in a captured trace. Text bodies are stored as-is and binary bodies as
+ * base64. Response bodies are only kept when they are text and no larger than MAX_RESPONSE_BODY, since the
+ * replayer only needs them to find generated values (session tokens, GUIDs, IDs) to substitute.
+ */
+public class TraceEntry {
+    static final int MAX_RESPONSE_BODY = 64 * 1024;
+
+    private long offsetMillis;
+    private String method;
+    private String path;
+    private Map<String, String> requestHeaders = new LinkedHashMap<>();
+    private String requestBody;
+    private boolean requestBodyBase64;
+    private int status;
+    private String responseBody;
+    private long durationMillis;
+    private String fault;
+
+    /** Milliseconds from the start of the capture to the arrival of this request. */
+    public long getOffsetMillis() {
+        return offsetMillis;
+    }
+
+    public void setOffsetMillis(long offsetMillis) {
+        this.offsetMillis = offsetMillis;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public void setMethod(String method) {
+        this.method = method;
+    }
+
+    /** The path including any query string. */
+    public String getPath() {
+        return path;
+    }
+
+    public void setPath(String path) {
+        this.path = path;
+    }
+
+    public Map<String, String> getRequestHeaders() {
+        return requestHeaders;
+    }
+
+    public String getRequestBody() {
+        return requestBody;
+    }
+
+    public boolean isRequestBodyBase64() {
+        return requestBodyBase64;
+    }
+
+    public void setRequestBody(byte[] body) {
+        String text = decodeText(body);
+        this.requestBodyBase64 = (text == null);
+        this.requestBody = (text == null) ? Base64.getEncoder().encodeToString(body) : text;
+    }
+
+    public byte[] getRequestBodyBytes() {
+        if (requestBody == null) {
+            return null;
+        }
+        return requestBodyBase64 ? Base64.getDecoder().decode(requestBody) : requestBody.getBytes(UTF_8);
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public void setStatus(int status) {
+        this.status = status;
+    }
+
+    public String getResponseBody() {
+        return responseBody;
+    }
+
+    public void setResponseBody(byte[] body) {
+        this.responseBody = (body.length > MAX_RESPONSE_BODY) ? null : decodeText(body);
+    }
+
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+
+    public void setDurationMillis(long durationMillis) {
+        this.durationMillis = durationMillis;
+    }
+
+    /** The fault ForwardingProxy injected into this exchange, if any. */
+    public String getFault() {
+        return fault;
+    }
+
+    public void setFault(String fault) {
+        this.fault = fault;
+    }
+
+    /** Decodes strictly as UTF-8, returning null if the bytes aren't text. */
+    private static String decodeText(byte[] bytes) {
+        try {
+            return UTF_8.newDecoder().onMalformedInput(CodingErrorAction.REPORT)
+                    .onUnmappableCharacter(CodingErrorAction.REPORT).decode(ByteBuffer.wrap(bytes)).toString();
+        } catch(CharacterCodingException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.sagebionetworks.bridge.rest.RestUtils;
+
+/**
+ * Captured traffic as gzipped newline-delimited JSON, one TraceEntry per line in the order the exchanges
+ * completed. Both sides stream, so a trace of a full suite run never has to be held in memory. Traces contain
+ * the test accounts' credentials and session tokens, and should be treated like the test properties file.
+ */
+public class TraceFile {
+    private static final Logger LOG = LoggerFactory.getLogger(TraceFile.class);
+
+    /** Appends exchanges to a trace file; attach it to a ForwardingProxy to capture a run. */
+    public static class TraceWriter implements ForwardingProxy.Listener, Closeable {
+        private final Writer writer;
+        private int count;
+
+        public TraceWriter(File file) throws IOException {
+            this.writer = new BufferedWriter(new OutputStreamWriter(
+                    new GZIPOutputStream(new FileOutputStream(file)), UTF_8));
+        }
+
+        @Override
+        public synchronized void onExchange(TraceEntry entry) {
+            try {
+                writer.write(RestUtils.GSON.toJson(entry));
+                writer.write('\n');
+                count++;
+            } catch(IOException e) {
+                LOG.error("Error writing trace entry for " + entry.getMethod() + " " + entry.getPath(), e);
+            }
+        }
+
+        public synchronized int getCount() {
+            return count;
+        }
+
+        @Override
+        public synchronized void close() throws IOException {
+            writer.close();
+        }
+    }
+
+    /** Reads a trace file one entry at a time. */
+    public static class TraceReader implements Iterator<TraceEntry>, Closeable {
+        private final BufferedReader reader;
+        private String nextLine;
+
+        public TraceReader(File file) throws IOException {
+            this.reader = new BufferedReader(new InputStreamReader(
+                    new GZIPInputStream(new FileInputStream(file)), UTF_8));
+            this.nextLine = reader.readLine();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return nextLine != null;
+        }
+
+        @Override
+        public TraceEntry next() {
+            if (nextLine == null) {
+                throw new NoSuchElementException();
+            }
+            TraceEntry entry = RestUtils.GSON.fromJson(nextLine, TraceEntry.class);
+            try {
+                nextLine = reader.readLine();
+            } catch(IOException e) {
+                throw new IllegalStateException(e);
+            }
+            return entry;
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+}
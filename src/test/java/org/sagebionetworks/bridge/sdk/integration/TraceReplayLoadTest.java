@@ -0,0 +1,51 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+import static org.junit.Assume.assumeTrue;
+import static org.sagebionetworks.bridge.sdk.integration.LoadTestHelper.doubleProperty;
+import static org.sagebionetworks.bridge.sdk.integration.LoadTestHelper.intListProperty;
+import static org.sagebionetworks.bridge.sdk.integration.LoadTestHelper.stringProperty;
+
+import java.io.File;
+import java.util.List;
+
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Replays a trace captured from a normal suite run (see InitListener) against a target server, at a speed
+ * multiplier and an increasing number of concurrent replicas, which turns the suite's call sequences into a
+ * production-shaped load test. Skipped unless -Dloadtest.replayTrace is set. The target is
+ * -Dloadtest.replayTarget, or the stand-in server with -Dloadtest.standIn=true.
+ */
+@Category(LoadTest.class)
+public class TraceReplayLoadTest {
+    private static final Logger LOG = LoggerFactory.getLogger(TraceReplayLoadTest.class);
+
+    private static final String TRACE = stringProperty("replayTrace", null);
+    private static final double SPEED = doubleProperty("replaySpeed", 1.0);
+    private static final List<Integer> REPLICAS = intListProperty("replayReplicas", "1,4,16");
+
+    @Test
+    public void replayCapturedTrace() throws Exception {
+        assumeTrue("No trace given with -Dloadtest.replayTrace", TRACE != null);
+        File trace = new File(TRACE);
+        String target = LoadTestHelper.isStandInMode() ? StandInServer.get().getBaseUrl()
+                : stringProperty("replayTarget", null);
+        if (target == null) {
+            throw new IllegalStateException("loadtest.replayTarget is required to replay a trace");
+        }
+
+        for (int replicas : REPLICAS) {
+            LatencyRecorder recorder = new LatencyRecorder();
+            TraceReplayer replayer = new TraceReplayer(target, SPEED, recorder);
+            long elapsed = replayer.replay(trace, replicas);
+            recorder.log(LOG, "Replay of " + trace.getName() + " at " + SPEED + "x, " + replicas + " replicas",
+                    elapsed);
+            if (!replayer.getUncorrelatedRoutes().isEmpty()) {
+                LOG.info("  responses not correlated (binary or too large): {}", replayer.getUncorrelatedRoutes());
+            }
+        }
+    }
+}
@@ -0,0 +1,261 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonSyntaxException;
+import org.apache.commons.lang3.RandomStringUtils;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.methods.RequestBuilder;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.util.EntityUtils;
+
+/**
+ * Re-issues a captured trace against a target server. Each replica replays the whole trace in order, on its
+ * own thread, with its own substitutions:
+ *
+ * - Generated identifiers are correlated by walking the recorded and the live JSON responses side by side;
+ *   where an ID-like field (sessionToken, guid, id, or a name ending in Guid(s) or Id(s)) or an ID-like value
+ *   differs, later occurrences of the recorded value in paths, headers and bodies are replaced by the live one.
+ *   This is what carries sessions across the replay. Timestamps and free text are left alone, and values are
+ *   only replaced as whole tokens, looked up in the substitution map, so rewriting stays linear in the size of
+ *   the request.
+ * - Values the tests generate themselves are given a per-replica suffix, so replicas (and the original run)
+ *   don't collide: Tests.randomIdentifier() identifiers, and the plus-addressed emails of accounts the trace
+ *   creates (the email in a sign up, createUser or createParticipant body). Other addresses, like the admin's
+ *   or bridge-testing+crc@, belong to fixed accounts and are replayed as recorded.
+ *
+ * Requests are paced at their recorded offsets divided by the speed multiplier; a multiplier of 0 replays as
+ * fast as the server answers. Latency is recorded per normalized route, and a status that differs from the
+ * recorded one is counted as an error.
+ */
+public class TraceReplayer {
+    /** Recorded values shorter than this are too likely to appear by accident to substitute safely. */
+    private static final int MIN_SUBSTITUTION_LENGTH = 8;
+    private static final Pattern PLUS_ADDRESSED_EMAIL = Pattern.compile("\\+([A-Za-z0-9._-]+)@");
+    private static final Pattern EMAIL = Pattern.compile("[A-Za-z0-9._%-]+\\+[A-Za-z0-9._-]+@[A-Za-z0-9.-]+");
+    private static final Pattern ACCOUNT_CREATING_PATH = Pattern.compile(
+            "/v3/auth/signUp|/v3/users|/v3/participants|/v5/studies/[^/]+/participants");
+    private static final Pattern RANDOM_IDENTIFIER = Pattern.compile("\\bsdk-[a-z0-9]+-[a-z]{5}\\b");
+    private static final Pattern ID_SEGMENT = Pattern.compile("[A-Za-z0-9_:.+-]{16,}|\\d+|[^/]*[@%][^/]*");
+    /** Like the first form of ID_SEGMENT, but without ':' and '.', so timestamps don't qualify. */
+    private static final Pattern ID_VALUE = Pattern.compile("[A-Za-z0-9_+-]{16,}");
+    /** The runs of characters substitutions are looked up by; everything else delimits them. */
+    private static final Pattern TOKEN = Pattern.compile("[A-Za-z0-9_:.+-]+");
+    private static final Pattern ID_FIELD = Pattern.compile("sessionToken|guid|id|.*(Guid|Id)s?");
+    private static final Set<String> REPLAYED_HEADERS = ImmutableSet.of("bridge-session", "content-type",
+            "user-agent", "accept-language", "authorization");
+
+    private final String targetUrl;
+    private final double speed;
+    private final LatencyRecorder recorder;
+    private final CloseableHttpClient httpClient;
+    private final Map<String, Boolean> uncorrelatedRoutes = new ConcurrentHashMap<>();
+
+    public TraceReplayer(String targetUrl, double speed, LatencyRecorder recorder) {
+        this.targetUrl = targetUrl.replaceAll("/+$", "");
+        this.speed = speed;
+        this.recorder = recorder;
+        this.httpClient = HttpClients.custom().disableRedirectHandling().disableCookieManagement()
+                .setMaxConnTotal(500).setMaxConnPerRoute(500).build();
+    }
+
+    /** Replay the trace with the given number of concurrent replicas. Returns elapsed nanoseconds. */
+    public long replay(File trace, int replicas) throws Exception {
+        try {
+            return LoadTestHelper.runConcurrently(replicas, replicas, (replica) -> {
+                replayOnce(trace, replica);
+                return null;
+            });
+        } finally {
+            httpClient.close();
+        }
+    }
+
+    private void replayOnce(File trace, int replica) throws IOException, InterruptedException {
+        Replica state = new Replica("r" + replica + RandomStringUtils.randomAlphabetic(3).toLowerCase());
+        long start = System.nanoTime();
+        try (TraceFile.TraceReader reader = new TraceFile.TraceReader(trace)) {
+            while (reader.hasNext()) {
+                TraceEntry entry = reader.next();
+                if (speed > 0) {
+                    long dueNanos = start + (long)(entry.getOffsetMillis() * 1000000L / speed);
+                    long waitNanos = dueNanos - System.nanoTime();
+                    if (waitNanos > 0) {
+                        Thread.sleep(waitNanos / 1000000L, (int)(waitNanos % 1000000L));
+                    }
+                }
+                replayEntry(entry, state);
+            }
+        }
+    }
+
+    private void replayEntry(TraceEntry entry, Replica state) throws IOException {
+        registerCreatedEmail(entry, state);
+        String path = rewrite(entry.getPath(), state);
+        String route = entry.getMethod() + " " + normalize(entry.getPath());
+
+        RequestBuilder builder = RequestBuilder.create(entry.getMethod()).setUri(targetUrl + path);
+        for (Map.Entry<String, String> header : entry.getRequestHeaders().entrySet()) {
+            if (REPLAYED_HEADERS.contains(header.getKey().toLowerCase())) {
+                builder.addHeader(header.getKey(), rewrite(header.getValue(), state));
+            }
+        }
+        if (entry.getRequestBody() != null) {
+            byte[] body = entry.isRequestBodyBase64() ? entry.getRequestBodyBytes()
+                    : rewrite(entry.getRequestBody(), state).getBytes("UTF-8");
+            builder.setEntity(new ByteArrayEntity(body));
+        }
+
+        long start = System.nanoTime();
+        String responseBody;
+        int status;
+        try {
+            HttpResponse response = httpClient.execute(builder.build());
+            status = response.getStatusLine().getStatusCode();
+            responseBody = (response.getEntity() == null) ? null : EntityUtils.toString(response.getEntity(), "UTF-8");
+        } catch(IOException e) {
+            recorder.recordError(route, e);
+            return;
+        }
+        if (status != entry.getStatus()) {
+            recorder.recordError(route, "HTTP " + status + " (recorded " + entry.getStatus() + ")");
+        } else {
+            recorder.record(route, System.nanoTime() - start);
+        }
+        if (entry.getResponseBody() != null && responseBody != null) {
+            correlate(null, parse(entry.getResponseBody()), parse(responseBody), state);
+        } else if (entry.getResponseBody() == null && status < 300) {
+            uncorrelatedRoutes.put(route, Boolean.TRUE);
+        }
+    }
+
+    /** Routes whose recorded response was too large or binary to correlate against. */
+    public Set<String> getUncorrelatedRoutes() {
+        return uncorrelatedRoutes.keySet();
+    }
+
+    /** A request that creates an account marks its plus-addressed email as generated by the trace. */
+    private static void registerCreatedEmail(TraceEntry entry, Replica state) {
+        int query = entry.getPath().indexOf('?');
+        String path = (query < 0) ? entry.getPath() : entry.getPath().substring(0, query);
+        if (!"POST".equals(entry.getMethod()) || !ACCOUNT_CREATING_PATH.matcher(path).matches()
+                || entry.getRequestBody() == null || entry.isRequestBodyBase64()) {
+            return;
+        }
+        JsonElement body = parse(entry.getRequestBody());
+        if (body != null && body.isJsonObject()) {
+            JsonElement email = body.getAsJsonObject().get("email");
+            if (email != null && email.isJsonPrimitive() && EMAIL.matcher(email.getAsString()).matches()) {
+                state.createdEmails.add(email.getAsString());
+            }
+        }
+    }
+
+    /** Walk both responses together; array elements are correlated under the name of the field holding them. */
+    private static void correlate(String fieldName, JsonElement recorded, JsonElement live, Replica state) {
+        if (recorded == null || live == null) {
+            return;
+        }
+        if (recorded.isJsonObject() && live.isJsonObject()) {
+            JsonObject liveObject = live.getAsJsonObject();
+            for (Map.Entry<String, JsonElement> field : recorded.getAsJsonObject().entrySet()) {
+                correlate(field.getKey(), field.getValue(), liveObject.get(field.getKey()), state);
+            }
+        } else if (recorded.isJsonArray() && live.isJsonArray()) {
+            int size = Math.min(recorded.getAsJsonArray().size(), live.getAsJsonArray().size());
+            for (int i = 0; i < size; i++) {
+                correlate(fieldName, recorded.getAsJsonArray().get(i), live.getAsJsonArray().get(i), state);
+            }
+        } else if (recorded.isJsonPrimitive() && live.isJsonPrimitive() && recorded.getAsJsonPrimitive().isString()) {
+            String from = recorded.getAsString();
+            String to = live.getAsString();
+            boolean idLike = (fieldName != null && ID_FIELD.matcher(fieldName).matches())
+                    || ID_VALUE.matcher(from).matches();
+            // Values we suffixed ourselves are already rewritten consistently, and only whole tokens can be
+            // found again by rewrite().
+            if (idLike && from.length() >= MIN_SUBSTITUTION_LENGTH && TOKEN.matcher(from).matches()
+                    && !from.equals(to) && !suffix(from, state).equals(to)) {
+                state.substitutions.put(from, to);
+            }
+        }
+    }
+
+    private static String rewrite(String value, Replica state) {
+        String result = suffix(value, state);
+        if (state.substitutions.isEmpty()) {
+            return result;
+        }
+        Matcher matcher = TOKEN.matcher(result);
+        StringBuffer buffer = new StringBuffer(result.length());
+        while (matcher.find()) {
+            String to = state.substitutions.get(matcher.group());
+            matcher.appendReplacement(buffer, Matcher.quoteReplacement((to == null) ? matcher.group() : to));
+        }
+        matcher.appendTail(buffer);
+        return buffer.toString();
+    }
+
+    private static String suffix(String value, Replica state) {
+        String result = value;
+        if (!state.createdEmails.isEmpty()) {
+            Matcher matcher = EMAIL.matcher(value);
+            StringBuffer buffer = new StringBuffer(value.length());
+            while (matcher.find()) {
+                String email = matcher.group();
+                String replacement = state.createdEmails.contains(email)
+                        ? PLUS_ADDRESSED_EMAIL.matcher(email).replaceFirst("+$1-" + state.suffix + "@") : email;
+                matcher.appendReplacement(buffer, Matcher.quoteReplacement(replacement));
+            }
+            matcher.appendTail(buffer);
+            result = buffer.toString();
+        }
+        return RANDOM_IDENTIFIER.matcher(result).replaceAll("$0-" + state.suffix);
+    }
+
+    /** Replace path segments that look like IDs with {id}, and drop the query, to group requests by route. */
+    static String normalize(String path) {
+        int query = path.indexOf('?');
+        String withoutQuery = (query < 0) ? path : path.substring(0, query);
+        List<String> segments = new ArrayList<>();
+        for (String segment : withoutQuery.split("/")) {
+            segments.add(ID_SEGMENT.matcher(segment).matches() || RANDOM_IDENTIFIER.matcher(segment).matches()
+                    ? "{id}" : segment);
+        }
+        return String.join("/", segments);
+    }
+
+    private static JsonElement parse(String json) {
+        try {
+            return new JsonParser().parse(json);
+        } catch(JsonSyntaxException e) {
+            return null;
+        }
+    }
+
+    /** What one replica has learned so far: its suffix, the generated values it rewrites, and its accounts. */
+    private static class Replica {
+        private final String suffix;
+        private final Map<String, String> substitutions = new HashMap<>();
+        private final Set<String> createdEmails = new HashSet<>();
+
+        Replica(String suffix) {
+            this.suffix = suffix;
+        }
+    }
+}
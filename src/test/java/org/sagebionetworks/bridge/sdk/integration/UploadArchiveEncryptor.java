@@ -0,0 +1,163 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.sagebionetworks.bridge.sdk.integration.LoadTestHelper.stringProperty;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.security.Provider;
+import java.security.cert.CertificateException;
+import java.security.cert.CertificateFactory;
+import java.security.cert.X509Certificate;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.fluent.Request;
+import org.apache.http.util.EntityUtils;
+import org.bouncycastle.cms.CMSAlgorithm;
+import org.bouncycastle.cms.CMSEnvelopedDataStreamGenerator;
+import org.bouncycastle.cms.CMSException;
+import org.bouncycastle.cms.jcajce.JceCMSContentEncryptorBuilder;
+import org.bouncycastle.cms.jcajce.JceKeyTransRecipientInfoGenerator;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.joda.time.DateTime;
+
+import org.sagebionetworks.bridge.json.DefaultObjectMapper;
+import org.sagebionetworks.bridge.user.TestUserHelper.TestUser;
+
+/**
+ * Builds encrypted upload archives on the fly from the unencrypted fixtures in upload-test/unencrypted, so
+ * load tests don't depend on the pre-built per-environment binaries. The zip is re-written entry by entry
+ * straight into a streaming CMS envelope (AES-256-CBC content key wrapped with the app's RSA certificate,
+ * the same format as the committed fixtures), so memory use is a few fixed buffers regardless of archive
+ * size and nothing is written to disk. Every archive gets a fresh content key and IV, so each has its own
+ * MD5 and the server never treats two of them as duplicates.
+ *
+ * The certificate is the app's public key from GET /v3/apps/self/publicKey, or a PEM file given with
+ * -Dloadtest.uploadCert.
+ */
+public class UploadArchiveEncryptor {
+    static final String FIXTURE_DIR = "src/test/resources/upload-test/unencrypted/";
+    static final int BUFFER_SIZE = 8192;
+
+    private static final Provider PROVIDER = new BouncyCastleProvider();
+    private static final String INFO_JSON = "info.json";
+
+    private final X509Certificate certificate;
+
+    public UploadArchiveEncryptor(X509Certificate certificate) {
+        this.certificate = certificate;
+    }
+
+    /** An encryptor for the environment the user is signed in to, unless -Dloadtest.uploadCert names a file. */
+    public static UploadArchiveEncryptor forEnvironment(TestUser user) throws IOException, CertificateException {
+        String certFile = stringProperty("uploadCert", null);
+        if (certFile != null) {
+            String pem = new String(Files.readAllBytes(Paths.get(certFile)), UTF_8);
+            return new UploadArchiveEncryptor(parseCertificate(pem));
+        }
+        HttpResponse response = Request.Get(user.getClientManager().getHostUrl() + "/v3/apps/self/publicKey")
+                .setHeader("Bridge-Session", user.getSession().getSessionToken())
+                .execute().returnResponse();
+        String body = EntityUtils.toString(response.getEntity());
+        if (response.getStatusLine().getStatusCode() != 200) {
+            throw new IOException("Could not retrieve the app's public key: " + body);
+        }
+        JsonNode node = DefaultObjectMapper.INSTANCE.readTree(body);
+        return new UploadArchiveEncryptor(parseCertificate(node.get("publicKey").textValue()));
+    }
+
+    public static X509Certificate parseCertificate(String pem) throws CertificateException {
+        CertificateFactory factory = CertificateFactory.getInstance("X.509");
+        return (X509Certificate)factory.generateCertificate(new ByteArrayInputStream(pem.getBytes(UTF_8)));
+    }
+
+    /** One of the unencrypted fixtures, e.g. "generic-survey". */
+    public static File fixture(String name) {
+        return new File(FIXTURE_DIR + name + ".zip");
+    }
+
+    public X509Certificate getCertificate() {
+        return certificate;
+    }
+
+    /** Encrypt a fixture, stamping it with createdOn. The caller owns and closes the output stream. */
+    public void encrypt(String fixtureName, DateTime createdOn, OutputStream out) throws IOException, CMSException {
+        try (InputStream in = new FileInputStream(fixture(fixtureName))) {
+            encrypt(in, createdOn, out);
+        }
+    }
+
+    /**
+     * Read an unencrypted zip and write it, encrypted, to the output stream. If createdOn isn't null, the
+     * archive's creation time in info.json (createdOn, or each file's timestamp for the legacy format) is
+     * replaced with it. The caller owns and closes both streams.
+     */
+    public void encrypt(InputStream unencryptedZip, DateTime createdOn, OutputStream out)
+            throws IOException, CMSException {
+        CMSEnvelopedDataStreamGenerator generator = new CMSEnvelopedDataStreamGenerator();
+        generator.setBufferSize(BUFFER_SIZE);
+        generator.addRecipientInfoGenerator(new JceKeyTransRecipientInfoGenerator(certificate).setProvider(PROVIDER));
+        try (OutputStream encrypted = generator.open(out,
+                new JceCMSContentEncryptorBuilder(CMSAlgorithm.AES256_CBC).setProvider(PROVIDER).build())) {
+            copyArchive(unencryptedZip, createdOn, encrypted);
+        }
+    }
+
+    /**
+     * The zip half of encrypt(), without the encryption. Entries are recompressed into the output; the output
+     * stream is finished but not closed.
+     */
+    static void copyArchive(InputStream unencryptedZip, DateTime createdOn, OutputStream out) throws IOException {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        ZipInputStream zis = new ZipInputStream(unencryptedZip);
+        ZipOutputStream zos = new ZipOutputStream(out);
+        ZipEntry entry;
+        while ((entry = zis.getNextEntry()) != null) {
+            zos.putNextEntry(new ZipEntry(entry.getName()));
+            if (createdOn != null && INFO_JSON.equals(entry.getName())) {
+                zos.write(restamp(readEntry(zis, buffer), createdOn));
+            } else {
+                int count;
+                while ((count = zis.read(buffer)) != -1) {
+                    zos.write(buffer, 0, count);
+                }
+            }
+            zos.closeEntry();
+        }
+        zos.finish();
+    }
+
+    private static byte[] readEntry(ZipInputStream zis, byte[] buffer) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        int count;
+        while ((count = zis.read(buffer)) != -1) {
+            baos.write(buffer, 0, count);
+        }
+        return baos.toByteArray();
+    }
+
+    private static byte[] restamp(byte[] infoJson, DateTime createdOn) throws IOException {
+        ObjectNode info = (ObjectNode)DefaultObjectMapper.INSTANCE.readTree(infoJson);
+        if (info.has("createdOn")) {
+            info.put("createdOn", createdOn.toString());
+        }
+        if (info.has("files")) {
+            for (JsonNode file : info.get("files")) {
+                ((ObjectNode)file).put("timestamp", createdOn.toString());
+            }
+        }
+        return DefaultObjectMapper.INSTANCE.writeValueAsBytes(info);
+    }
+}
@@ -0,0 +1,142 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigInteger;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.cert.X509Certificate;
+import java.util.Date;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.cert.jcajce.JcaX509CertificateConverter;
+import org.bouncycastle.cert.jcajce.JcaX509v3CertificateBuilder;
+import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
+import org.joda.time.DateTime;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Client-side cost of building an encrypted upload with UploadArchiveEncryptor: each operation re-zips one
+ * archive and streams it through CMS encryption into a byte-counting sink. Archives are the unencrypted
+ * fixtures, optionally padded with an incompressible sensor-data entry of paddingKb kilobytes; rezipOnly is
+ * the same work without encryption, so the difference is the cost of encryption itself. Throughput in MB/s is
+ * ops/s times the archive size logged at setup. Runs offline against a self-signed certificate; run with
+ * -Dbenchmark=UploadEncryption. With the profile's GC profiler, gc.alloc.rate.norm should stay flat as the
+ * archive grows.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UploadEncryptionBenchmark {
+    private static final Logger LOG = LoggerFactory.getLogger(UploadEncryptionBenchmark.class);
+
+    @Param({"generic-survey", "legacy-non-survey", "schemaless"})
+    public String fixture;
+
+    @Param({"0", "1024", "16384"})
+    public int paddingKb;
+
+    private UploadArchiveEncryptor encryptor;
+    private byte[] archive;
+    private DateTime createdOn;
+
+    @Setup
+    public void setup() throws Exception {
+        encryptor = new UploadArchiveEncryptor(selfSignedCertificate());
+        archive = padArchive(fixture, paddingKb);
+        createdOn = DateTime.now();
+        LOG.info("{} + {}KB: {} bytes", fixture, paddingKb, archive.length);
+    }
+
+    @Benchmark
+    public long encrypt() throws Exception {
+        CountingOutputStream out = new CountingOutputStream();
+        encryptor.encrypt(new ByteArrayInputStream(archive), createdOn, out);
+        return out.count;
+    }
+
+    @Benchmark
+    public long rezipOnly() throws Exception {
+        CountingOutputStream out = new CountingOutputStream();
+        UploadArchiveEncryptor.copyArchive(new ByteArrayInputStream(archive), createdOn, out);
+        return out.count;
+    }
+
+    private static byte[] padArchive(String fixture, int paddingKb) throws Exception {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        byte[] buffer = new byte[1024];
+        try (InputStream in = new FileInputStream(UploadArchiveEncryptor.fixture(fixture));
+                ZipOutputStream zos = new ZipOutputStream(baos)) {
+            ZipInputStream zis = new ZipInputStream(in);
+            ZipEntry entry;
+            while ((entry = zis.getNextEntry()) != null) {
+                zos.putNextEntry(new ZipEntry(entry.getName()));
+                int count;
+                while ((count = zis.read(buffer)) != -1) {
+                    zos.write(buffer, 0, count);
+                }
+                zos.closeEntry();
+            }
+            if (paddingKb > 0) {
+                Random random = new Random(paddingKb);
+                zos.putNextEntry(new ZipEntry("sensor.bin"));
+                for (int i = 0; i < paddingKb; i++) {
+                    random.nextBytes(buffer);
+                    zos.write(buffer);
+                }
+                zos.closeEntry();
+            }
+        }
+        return baos.toByteArray();
+    }
+
+    static X509Certificate selfSignedCertificate() throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        KeyPair keyPair = generator.generateKeyPair();
+        X500Name name = new X500Name("CN=upload-benchmark.sagebridge.org, O=Sage Bionetworks");
+        long now = System.currentTimeMillis();
+        JcaX509v3CertificateBuilder builder = new JcaX509v3CertificateBuilder(name, BigInteger.valueOf(now),
+                new Date(now - TimeUnit.DAYS.toMillis(1)), new Date(now + TimeUnit.DAYS.toMillis(1)), name,
+                keyPair.getPublic());
+        return new JcaX509CertificateConverter().getCertificate(
+                builder.build(new JcaContentSignerBuilder("SHA256withRSA").build(keyPair.getPrivate())));
+    }
+
+    private static class CountingOutputStream extends OutputStream {
+        long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+import static org.sagebionetworks.bridge.sdk.integration.LoadTestHelper.intListProperty;
+import static org.sagebionetworks.bridge.sdk.integration.LoadTestHelper.intProperty;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.sagebionetworks.bridge.rest.api.AppsApi;
+import org.sagebionetworks.bridge.rest.api.ForConsentedUsersApi;
+import org.sagebionetworks.bridge.rest.api.ParticipantsApi;
+import org.sagebionetworks.bridge.rest.api.UploadsApi;
+import org.sagebionetworks.bridge.rest.model.Role;
+import org.sagebionetworks.bridge.rest.model.UploadList;
+import org.sagebionetworks.bridge.rest.model.UploadRequest;
+import org.sagebionetworks.bridge.user.TestUserHelper;
+import org.sagebionetworks.bridge.user.TestUserHelper.TestUser;
+
+/**
+ * Scans upload history the way our ops tooling does, paging through every upload in a window. Seeds
+ * loadtest.uploads upload sessions (REQUESTED records, as in AppTest.getAppUploads) across a few participants,
+ * then for each window width and page size scans the whole window through AppsApi.getUploads,
+ * UploadsApi.getUploads and ParticipantsApi.getParticipantUploads (for one seeded participant). Upload sessions
+ * can only be created now, so windows end an hour from now and start loadtest.windowHours before that; wider windows
+ * also pick up whatever else the test app has uploaded, which is what a real scan would see. The server caps the
+ * window width, so overly wide windows show up as errors.
+ *
+ * Each scan logs its records per second, and page latency is recorded by page depth ("page 1", "pages 2-3",
+ * "pages 4-7" and so on) so any slowdown as the offset key deepens shows up in the percentiles.
+ */
+@Category(LoadTest.class)
+public class UploadListingLoadTest {
+    private static final Logger LOG = LoggerFactory.getLogger(UploadListingLoadTest.class);
+
+    private static final int UPLOADS = intProperty("uploads", 1000);
+    private static final int UPLOADERS = intProperty("uploaders", 5);
+    private static final List<Integer> WINDOW_HOURS = intListProperty("windowHours", "2,24,47");
+    private static final List<Integer> PAGE_SIZES = intListProperty("pageSizes", "10,50,100");
+    private static final int THREADS = intProperty("threads", 8);
+
+    private TestUser admin;
+    private TestUser researcher;
+    private final List<TestUser> uploaders = new ArrayList<>();
+    private final LatencyRecorder recorder = new LatencyRecorder();
+
+    @Before
+    public void before() throws Exception {
+        admin = TestUserHelper.getSignedInAdmin();
+        researcher = TestUserHelper.createAndSignInUser(UploadListingLoadTest.class, false, Role.RESEARCHER);
+    }
+
+    @After
+    public void after() throws Exception {
+        for (TestUser uploader : uploaders) {
+            uploader.signOutAndDeleteUser();
+        }
+        if (researcher != null) {
+            researcher.signOutAndDeleteUser();
+        }
+    }
+
+    @Test
+    public void scanUploadHistory() throws Exception {
+        for (int i = 0; i < UPLOADERS; i++) {
+            uploaders.add(TestUserHelper.createAndSignInUser(UploadListingLoadTest.class, true));
+        }
+        UploadRequest request = new UploadRequest().name("upload.zip").contentType("application/zip")
+                .contentLength(100L).contentMd5("ABC");
+        long elapsed = LoadTestHelper.runConcurrently(THREADS, UPLOADS, (index) -> recorder.time(
+                "requestUploadSession", () -> uploaders.get(index % uploaders.size())
+                        .getClient(ForConsentedUsersApi.class).requestUploadSession(request).execute().body()));
+        recorder.log(LOG, "Seeding " + UPLOADS + " upload sessions", elapsed);
+
+        AppsApi appsApi = admin.getClient(AppsApi.class);
+        UploadsApi uploadsApi = admin.getClient(UploadsApi.class);
+        ParticipantsApi participantsApi = researcher.getClient(ParticipantsApi.class);
+        String userId = uploaders.get(0).getUserId();
+
+        // End an hour past now, as AppTest.getAppUploads does, so the sessions just seeded fall inside every
+        // window even if this machine's clock is behind the server's.
+        DateTime endTime = DateTime.now(DateTimeZone.UTC).plusHours(1);
+        for (int windowHours : WINDOW_HOURS) {
+            DateTime startTime = endTime.minusHours(windowHours);
+            for (int pageSize : PAGE_SIZES) {
+                recorder.reset();
+                long elapsedScans = scan("AppsApi.getUploads", (offsetKey) -> appsApi.getUploads(startTime,
+                        endTime, pageSize, offsetKey).execute().body());
+                elapsedScans += scan("UploadsApi.getUploads", (offsetKey) -> uploadsApi.getUploads(startTime,
+                        endTime, pageSize, offsetKey).execute().body());
+                elapsedScans += scan("ParticipantsApi.getParticipantUploads", (offsetKey) -> participantsApi
+                        .getParticipantUploads(userId, startTime, endTime, pageSize, offsetKey).execute().body());
+                recorder.log(LOG, String.format("Upload scan, %d hour window, page size %d", windowHours,
+                        pageSize), elapsedScans);
+            }
+        }
+    }
+
+    /**
+     * Page through the whole window, recording each page by depth and logging the scan rate. Returns the elapsed
+     * time of the scan in nanoseconds.
+     */
+    private long scan(String api, ThrowingFunction<String, UploadList> getPage) {
+        String offsetKey = null;
+        int page = 0;
+        int records = 0;
+        long start = System.nanoTime();
+        try {
+            do {
+                String key = offsetKey;
+                UploadList list = recorder.time(api + " " + depth(++page), () -> getPage.apply(key));
+                records += list.getItems().size();
+                offsetKey = list.getNextPageOffsetKey();
+            } while (offsetKey != null);
+        } catch(Exception e) {
+            LOG.warn("{} scan failed on page {}: {}", api, page, e.getMessage());
+            return System.nanoTime() - start;
+        }
+        long elapsed = System.nanoTime() - start;
+        double seconds = elapsed / 1000000000d;
+        LOG.info("{}: {} records in {} pages, {} s, {} records/s", api, records, page,
+                String.format("%.2f", seconds), String.format("%.1f", records / seconds));
+        return elapsed;
+    }
+
+    /** Buckets page numbers by powers of two: page 1, pages 2-3, pages 4-7... */
+    private static String depth(int page) {
+        int low = Integer.highestOneBit(page);
+        return (low == 1) ? "page 1" : "pages " + low + "-" + (2 * low - 1);
+    }
+}
@@ -0,0 +1,259 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+import static org.junit.Assert.assertEquals;
+import static org.sagebionetworks.bridge.rest.model.Role.DEVELOPER;
+import static org.sagebionetworks.bridge.sdk.integration.LoadTestHelper.intListProperty;
+import static org.sagebionetworks.bridge.sdk.integration.LoadTestHelper.intProperty;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.io.Files;
+import org.apache.commons.lang3.RandomStringUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.sagebionetworks.bridge.json.DefaultObjectMapper;
+import org.sagebionetworks.bridge.rest.api.ForAdminsApi;
+import org.sagebionetworks.bridge.rest.api.ForConsentedUsersApi;
+import org.sagebionetworks.bridge.rest.api.UploadSchemasApi;
+import org.sagebionetworks.bridge.rest.exceptions.ConcurrentModificationException;
+import org.sagebionetworks.bridge.rest.model.UploadFieldDefinition;
+import org.sagebionetworks.bridge.rest.model.UploadFieldType;
+import org.sagebionetworks.bridge.rest.model.UploadRequest;
+import org.sagebionetworks.bridge.rest.model.UploadSchema;
+import org.sagebionetworks.bridge.rest.model.UploadSchemaType;
+import org.sagebionetworks.bridge.rest.model.UploadSession;
+import org.sagebionetworks.bridge.rest.model.UploadStatus;
+import org.sagebionetworks.bridge.rest.model.UploadValidationStatus;
+import org.sagebionetworks.bridge.user.TestUserHelper;
+import org.sagebionetworks.bridge.user.TestUserHelper.TestUser;
+
+/**
+ * Grows the upload schema registry with schemas that sit just below the byte and column limits enforced in
+ * UploadSchemaTest, each with many revisions, and measures the v4 schema APIs as it grows. A second test
+ * measures synchronous upload validation against those schemas. Uploads are built on the fly as unencrypted
+ * v2_generic archives, so they can target any schema without pre-built fixtures.
+ */
+@Category(LoadTest.class)
+@SuppressWarnings("deprecation")
+public class UploadSchemaLoadTest {
+    private static final Logger LOG = LoggerFactory.getLogger(UploadSchemaLoadTest.class);
+
+    private static final List<Integer> SCHEMA_COUNTS = intListProperty("schemaCounts", "10,50");
+    private static final int REVISIONS_PER_SCHEMA = intProperty("revisionsPerSchema", 5);
+    private static final int READS_PER_STEP = intProperty("readsPerStep", 50);
+    private static final int UPLOADS_PER_SHAPE = intProperty("uploadsPerShape", 10);
+    private static final int THREADS = intProperty("threads", 8);
+
+    // 17 LARGE_TEXT_ATTACHMENT fields exceed the 50000 byte limit, 16 do not.
+    private static final int MAX_LARGE_TEXT_FIELDS = 16;
+    // 11 multi-choice fields of 11 answers exceed the 100 column limit, 9 (99 columns) do not.
+    private static final int MAX_MULTI_CHOICE_FIELDS = 9;
+    private static final int MULTI_CHOICE_ANSWERS = 11;
+
+    private static final List<String> SHAPES = ImmutableList.of("small", "nearByteLimit", "nearColumnLimit");
+
+    private TestUser developer;
+    private TestUser user;
+    private UploadSchemasApi schemasApi;
+    private String prefix;
+    private List<String> schemaIds = new ArrayList<>();
+    private LatencyRecorder recorder = new LatencyRecorder();
+
+    @Before
+    public void before() throws Exception {
+        developer = TestUserHelper.createAndSignInUser(UploadSchemaLoadTest.class, false, DEVELOPER);
+        user = TestUserHelper.createAndSignInUser(UploadSchemaLoadTest.class, true);
+        schemasApi = developer.getClient(UploadSchemasApi.class);
+        prefix = Tests.randomIdentifier(UploadSchemaLoadTest.class);
+    }
+
+    @After
+    public void after() throws Exception {
+        ForAdminsApi adminApi = TestUserHelper.getSignedInAdmin().getClient(ForAdminsApi.class);
+        for (String schemaId : schemaIds) {
+            adminApi.deleteAllRevisionsOfUploadSchema(schemaId, true).execute();
+        }
+        if (developer != null) {
+            developer.signOutAndDeleteUser();
+        }
+        if (user != null) {
+            user.signOutAndDeleteUser();
+        }
+    }
+
+    @Test
+    public void schemaRegistryScale() throws Exception {
+        for (int schemaCount : SCHEMA_COUNTS) {
+            recorder.reset();
+            int start = schemaIds.size();
+            List<String> newIds = new ArrayList<>();
+            for (int i = start; i < schemaCount; i++) {
+                newIds.add(prefix + "-" + i);
+            }
+            schemaIds.addAll(newIds);
+
+            long elapsed = LoadTestHelper.runConcurrently(THREADS, newIds.size(), (index) -> {
+                String schemaId = newIds.get(index);
+                String shape = SHAPES.get((start + index) % SHAPES.size());
+                for (long rev = 1; rev <= REVISIONS_PER_SCHEMA; rev++) {
+                    UploadSchema schema = makeSchema(schemaId, shape, rev);
+                    recorder.time("createUploadSchema/" + shape, () -> schemasApi.createUploadSchema(schema).execute());
+                }
+                return null;
+            });
+            recorder.log(LOG, "Schema creation, " + schemaCount + " schemas x " + REVISIONS_PER_SCHEMA
+                    + " revisions", elapsed);
+
+            recorder.reset();
+            elapsed = LoadTestHelper.runConcurrently(THREADS, READS_PER_STEP, (index) -> {
+                String schemaId = schemaIds.get(index % schemaIds.size());
+                String shape = SHAPES.get((index % schemaIds.size()) % SHAPES.size());
+
+                recorder.time("getMostRecentUploadSchemas", () -> schemasApi.getMostRecentUploadSchemas(false).execute());
+                UploadSchema latest = recorder.time("getMostRecentUploadSchema/" + shape,
+                        () -> schemasApi.getMostRecentUploadSchema(schemaId).execute().body());
+                recorder.time("getUploadSchema/" + shape,
+                        () -> schemasApi.getUploadSchema(schemaId, 1L).execute());
+                recorder.time("getAllRevisionsOfUploadSchema/" + shape,
+                        () -> schemasApi.getAllRevisionsOfUploadSchema(schemaId, false).execute());
+                timeVersionConflict(shape, latest);
+                return null;
+            });
+            recorder.log(LOG, "Schema reads and version conflicts, " + schemaCount + " schemas", elapsed);
+        }
+    }
+
+    @Test
+    public void uploadValidationAgainstLargeSchemas() throws Exception {
+        ForConsentedUsersApi usersApi = user.getClient(ForConsentedUsersApi.class);
+
+        for (String shape : SHAPES) {
+            String schemaId = prefix + "-upload-" + shape;
+            schemasApi.createUploadSchema(makeSchema(schemaId, shape, 1L)).execute();
+            schemaIds.add(schemaId);
+        }
+        long start = System.nanoTime();
+        for (String shape : SHAPES) {
+            String schemaId = prefix + "-upload-" + shape;
+            File file = makeUploadArchive(schemaId, shape);
+            try {
+                for (int i = 0; i < UPLOADS_PER_SHAPE; i++) {
+                    UploadRequest request = StreamingUploader.makeUploadRequest(file, "application/zip", false, true);
+                    UploadSession session = recorder.time("requestUploadSession/" + shape,
+                            () -> usersApi.requestUploadSession(request).execute().body());
+                    recorder.time("uploadToS3/" + shape, () -> {
+                        StreamingUploader.uploadToPresignedUrl(file, session.getUrl(), request.getContentType(),
+                                request.getContentMd5());
+                        return null;
+                    });
+                    UploadValidationStatus status = recorder.time("completeUploadSession/" + shape,
+                            () -> usersApi.completeUploadSession(session.getId(), true, false).execute().body());
+                    assertEquals("Upload " + session.getId() + " validated", UploadStatus.SUCCEEDED,
+                            status.getStatus());
+                }
+            } finally {
+                file.delete();
+            }
+        }
+        recorder.log(LOG, "Synchronous upload validation by schema shape", System.nanoTime() - start);
+    }
+
+    /**
+     * Updating the latest revision with a stale DDB version is rejected. The conflict is the expected outcome,
+     * so it is recorded as a latency rather than an error.
+     */
+    private void timeVersionConflict(String shape, UploadSchema latest) {
+        UploadSchema stale = makeSchema(latest.getSchemaId(), shape, latest.getRevision());
+        stale.setName(latest.getName());
+        stale.setVersion(latest.getVersion() - 1);
+        long start = System.nanoTime();
+        try {
+            schemasApi.updateUploadSchema(latest.getSchemaId(), latest.getRevision(), stale).execute();
+            recorder.recordError("updateUploadSchemaConflict/" + shape, new IllegalStateException());
+        } catch(ConcurrentModificationException e) {
+            recorder.record("updateUploadSchemaConflict/" + shape, System.nanoTime() - start);
+        } catch(Exception e) {
+            recorder.recordError("updateUploadSchemaConflict/" + shape, e);
+        }
+    }
+
+    static UploadSchema makeSchema(String schemaId, String shape, long revision) {
+        UploadSchema schema = new UploadSchema().name(schemaId).schemaId(schemaId).revision(revision)
+                .schemaType(UploadSchemaType.IOS_DATA);
+        for (UploadFieldDefinition fieldDef : makeFields(shape)) {
+            schema.addFieldDefinitionsItem(fieldDef);
+        }
+        return schema;
+    }
+
+    private static List<UploadFieldDefinition> makeFields(String shape) {
+        List<UploadFieldDefinition> fieldDefs = new ArrayList<>();
+        if ("nearByteLimit".equals(shape)) {
+            for (int i = 0; i < MAX_LARGE_TEXT_FIELDS; i++) {
+                fieldDefs.add(new UploadFieldDefinition().name("field-" + i).required(false)
+                        .type(UploadFieldType.LARGE_TEXT_ATTACHMENT));
+            }
+        } else if ("nearColumnLimit".equals(shape)) {
+            for (int i = 0; i < MAX_MULTI_CHOICE_FIELDS; i++) {
+                fieldDefs.add(new UploadFieldDefinition().name("field-" + i).required(false)
+                        .type(UploadFieldType.MULTI_CHOICE).multiChoiceAnswerList(answers()));
+            }
+        } else {
+            fieldDefs.add(new UploadFieldDefinition().name("field-0").required(false).type(UploadFieldType.STRING));
+        }
+        return fieldDefs;
+    }
+
+    private static List<String> answers() {
+        List<String> answerList = new ArrayList<>();
+        for (int i = 0; i < MULTI_CHOICE_ANSWERS; i++) {
+            answerList.add("answer-" + i);
+        }
+        return answerList;
+    }
+
+    /** Build an unencrypted v2_generic archive with a value for every field of the schema. */
+    private static File makeUploadArchive(String schemaId, String shape) throws Exception {
+        Map<String, Object> data = new LinkedHashMap<>();
+        for (UploadFieldDefinition fieldDef : makeFields(shape)) {
+            if (fieldDef.getType() == UploadFieldType.MULTI_CHOICE) {
+                data.put(fieldDef.getName(), answers().subList(0, 3));
+            } else if (fieldDef.getType() == UploadFieldType.LARGE_TEXT_ATTACHMENT) {
+                data.put(fieldDef.getName(), RandomStringUtils.randomAlphanumeric(2000));
+            } else {
+                data.put(fieldDef.getName(), "value");
+            }
+        }
+        Map<String, Object> info = ImmutableMap.<String, Object>builder().put("createdOn", "2015-04-13T18:58:21-07:00")
+                .put("dataFilename", "data.json").put("format", "v2_generic").put("item", schemaId)
+                .put("schemaRevision", 1).put("appVersion", "version 1.0.0, build 1")
+                .put("phoneInfo", "Integration Tests").build();
+
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (ZipOutputStream zos = new ZipOutputStream(baos)) {
+            zos.putNextEntry(new ZipEntry("info.json"));
+            zos.write(DefaultObjectMapper.INSTANCE.writeValueAsBytes(info));
+            zos.closeEntry();
+            zos.putNextEntry(new ZipEntry("data.json"));
+            zos.write(DefaultObjectMapper.INSTANCE.writeValueAsBytes(data));
+            zos.closeEntry();
+        }
+        File file = File.createTempFile(schemaId, ".zip");
+        Files.write(baos.toByteArray(), file);
+        return file;
+    }
+}
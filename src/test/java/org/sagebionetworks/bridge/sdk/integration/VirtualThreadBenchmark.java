@@ -0,0 +1,126 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Platform thread pool against a virtual thread per participant, the way LoadTestHelper.runConcurrently
+ * drives load. Each operation runs a batch of simulated participants, each making a few blocking calls of
+ * callMillis (the shape of a retrofit execute() waiting on the network), at most concurrency at once. The
+ * time per batch shows the throughput ceiling; the peakThreads (platform threads, virtual threads run on a
+ * few carriers) and peakHeapUsedMb counters show the memory side, since every platform thread also reserves its
+ * own stack (1MB by default) outside the heap. Heap is sampled by every participant mid-run, while the others
+ * in flight are still holding their stacks, and the highest sample is kept.
+ *
+ * VIRTUAL needs JDK 21+: run with -Dbenchmark=VirtualThread -Dloadtest.virtualThreads=true, or pass
+ * -p backend=PLATFORM in jmhArgs on an older JDK.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+public class VirtualThreadBenchmark {
+
+    @Param({"PLATFORM", "VIRTUAL"})
+    public ExecutionBackend backend;
+
+    @Param({"200", "2000", "10000"})
+    public int concurrency;
+
+    @Param({"10000"})
+    public int participants;
+
+    @Param({"20"})
+    public int callMillis;
+
+    @Param({"3"})
+    public int callsPerParticipant;
+
+    private ExecutorService executor;
+
+    @Setup(Level.Iteration)
+    public void setup() {
+        executor = backend.newExecutor(concurrency);
+        ManagementFactory.getThreadMXBean().resetPeakThreadCount();
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() throws Exception {
+        executor.shutdownNow();
+        executor.awaitTermination(1, TimeUnit.MINUTES);
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Memory {
+        public long peakThreads;
+        public long peakHeapUsedMb;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            peakThreads = 0L;
+            peakHeapUsedMb = 0L;
+        }
+    }
+
+    @Benchmark
+    public int participantBatch(Memory memory) throws Exception {
+        boolean bounded = (backend == ExecutionBackend.VIRTUAL);
+        Semaphore permits = new Semaphore(concurrency);
+        Runtime runtime = Runtime.getRuntime();
+        LongAccumulator heapUsed = new LongAccumulator(Math::max, 0L);
+        List<Future<Integer>> futures = new ArrayList<>(participants);
+        for (int i = 0; i < participants; i++) {
+            futures.add(executor.submit(() -> {
+                if (bounded) {
+                    permits.acquireUninterruptibly();
+                }
+                try {
+                    int calls = 0;
+                    for (int j = 0; j < callsPerParticipant; j++) {
+                        Thread.sleep(callMillis);
+                        calls++;
+                    }
+                    heapUsed.accumulate(runtime.totalMemory() - runtime.freeMemory());
+                    return calls;
+                } finally {
+                    if (bounded) {
+                        permits.release();
+                    }
+                }
+            }));
+        }
+        int calls = 0;
+        for (Future<Integer> future : futures) {
+            calls += future.get();
+        }
+        memory.peakHeapUsedMb = Math.max(memory.peakHeapUsedMb, heapUsed.get() >> 20);
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        memory.peakThreads = Math.max(memory.peakThreads, threads.getPeakThreadCount());
+        return calls;
+    }
+}
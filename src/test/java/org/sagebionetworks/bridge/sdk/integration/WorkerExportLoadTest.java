@@ -0,0 +1,98 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+import static org.sagebionetworks.bridge.sdk.integration.LoadTestHelper.intListProperty;
+import static org.sagebionetworks.bridge.sdk.integration.LoadTestHelper.intProperty;
+import static org.sagebionetworks.bridge.sdk.integration.Tests.PASSWORD;
+import static org.sagebionetworks.bridge.util.IntegTestUtils.TEST_APP_ID;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.google.common.collect.ImmutableList;
+import org.apache.commons.lang3.RandomStringUtils;
+import org.joda.time.DateTime;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.sagebionetworks.bridge.rest.api.ForAdminsApi;
+import org.sagebionetworks.bridge.rest.api.ForWorkersApi;
+import org.sagebionetworks.bridge.rest.model.Role;
+import org.sagebionetworks.bridge.rest.model.SignUp;
+import org.sagebionetworks.bridge.user.TestUserHelper;
+import org.sagebionetworks.bridge.user.TestUserHelper.TestUser;
+
+/**
+ * Exports participants through the worker API with ParticipantExporter, for each combination of page size and
+ * parallelism, and reports participants per second and the latency of each worker call. The export is limited
+ * to loadtest.participants accounts seeded for the run (through an email filter); set
+ * -Dloadtest.exportWholeApp=true to export every participant in the test app instead, as a nightly worker
+ * would. Each export is written to a temporary NDJSON file, deleted afterwards.
+ */
+@Category(LoadTest.class)
+public class WorkerExportLoadTest {
+    private static final Logger LOG = LoggerFactory.getLogger(WorkerExportLoadTest.class);
+
+    private static final int PARTICIPANTS = intProperty("participants", 200);
+    private static final List<Integer> PAGE_SIZES = intListProperty("pageSizes", "25,100");
+    private static final List<Integer> PARALLELISM = intListProperty("parallelism", "1,4,16");
+    private static final boolean WHOLE_APP = Boolean.getBoolean(LoadTestHelper.PROPERTY_PREFIX + "exportWholeApp");
+    private static final int THREADS = intProperty("threads", 8);
+
+    private TestUser worker;
+    private String emailPrefix;
+    private final List<String> userIds = new ArrayList<>();
+
+    @Before
+    public void before() throws Exception {
+        worker = TestUserHelper.createAndSignInUser(WorkerExportLoadTest.class, false, Role.WORKER);
+        emailPrefix = "bridge-testing+WorkerExportLoadTest-" + RandomStringUtils.randomAlphabetic(4) + "-";
+    }
+
+    @After
+    public void after() throws Exception {
+        ForAdminsApi adminsApi = TestUserHelper.getSignedInAdmin().getClient(ForAdminsApi.class);
+        for (String userId : userIds) {
+            adminsApi.deleteUser(userId).execute();
+        }
+        if (worker != null) {
+            worker.signOutAndDeleteUser();
+        }
+    }
+
+    @Test
+    public void exportParticipants() throws Exception {
+        ForAdminsApi adminsApi = TestUserHelper.getSignedInAdmin().getClient(ForAdminsApi.class);
+        LoadTestHelper.seedConcurrently(THREADS, PARTICIPANTS, userIds, (index) -> {
+            SignUp signUp = new SignUp().email(emailPrefix + index + "@sagebase.org").password(PASSWORD)
+                    .appId(TEST_APP_ID).consent(true);
+            return adminsApi.createUser(signUp).execute().body().getId();
+        });
+
+        ForWorkersApi workersApi = worker.getClient(ForWorkersApi.class);
+        for (int pageSize : PAGE_SIZES) {
+            for (int parallelism : PARALLELISM) {
+                LatencyRecorder recorder = new LatencyRecorder();
+                ParticipantExporter exporter = ParticipantExporter.forApp(workersApi, TEST_APP_ID)
+                        .pageSize(pageSize).parallelism(parallelism).recorder(recorder)
+                        .taskHistory(ImmutableList.of("task:CCC"), DateTime.now().minusDays(2),
+                                DateTime.now().plusDays(2));
+                if (!WHOLE_APP) {
+                    exporter.emailFilter(emailPrefix);
+                }
+                File file = File.createTempFile("participant-export", ".ndjson");
+                try {
+                    ParticipantExporter.Result result = exporter.export(file);
+                    recorder.log(LOG, String.format("Export, page size %d, parallelism %d: %s (%d KB)", pageSize,
+                            parallelism, result, file.length() / 1024), result.getElapsedNanos());
+                } finally {
+                    file.delete();
+                }
+            }
+        }
+    }
+}